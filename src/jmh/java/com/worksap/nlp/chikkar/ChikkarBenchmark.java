@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2020 Works Applications Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.nlp.chikkar;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import com.worksap.nlp.chikkar.dictionary.Dictionary;
+import com.worksap.nlp.chikkar.dictionary.SpanScanner;
+import com.worksap.nlp.chikkar.dictionary.SyntheticDictionary;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks of {@link Chikkar#find} and {@link Chikkar#scan}.
+ *
+ * <p>
+ * The words are in the system dictionary, which is searched by the group IDs,
+ * and the {@code layers - 1} user dictionaries above it do not contain them.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ChikkarBenchmark {
+
+    static final int QUERIES = 1024;
+    static final int GROUPS = 10000;
+    static final int MEMBERS = 8;
+
+    @Param({ "1", "2", "4" })
+    int layers;
+
+    Path directory;
+    List<Dictionary> dictionaries;
+    Chikkar chikkar;
+    String[] words;
+    int[][] groupIds;
+    Consumer<CharSequence> consumer;
+    String text;
+    SpanScanner.SpanConsumer spanConsumer;
+    int index;
+
+    @Setup
+    public void setUp(Blackhole blackhole) throws IOException {
+        directory = Files.createTempDirectory("chikkar");
+        dictionaries = new ArrayList<>();
+        chikkar = new Chikkar();
+        Path system = SyntheticDictionary.create(directory, "system", "同義", 1, GROUPS, MEMBERS);
+        dictionaries.add(new Dictionary(system.toString(), false));
+        for (int i = 1; i < layers; i++) {
+            Path user = SyntheticDictionary.create(directory, "user" + i, "user" + i, GROUPS * i + 1, GROUPS / 10,
+                    MEMBERS);
+            dictionaries.add(new Dictionary(user.toString(), true));
+        }
+        dictionaries.forEach(chikkar::addDictionary);
+
+        words = new String[QUERIES];
+        groupIds = new int[QUERIES][];
+        for (int i = 0; i < QUERIES; i++) {
+            int gid = 1 + (int) ((long) i * GROUPS / QUERIES);
+            words[i] = SyntheticDictionary.headword("同義", gid, 0);
+            groupIds[i] = new int[] { gid };
+        }
+        consumer = blackhole::consume;
+
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < QUERIES; i += 16) {
+            builder.append(words[i]).append("の");
+        }
+        text = builder.toString();
+        spanConsumer = (begin, end, groupId) -> blackhole.consume(groupId);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        chikkar.close();
+        for (Dictionary dictionary : dictionaries) {
+            dictionary.close();
+        }
+        SyntheticDictionary.delete(directory);
+    }
+
+    @Benchmark
+    public List<String> find() {
+        return chikkar.find(words[index++ & (QUERIES - 1)]);
+    }
+
+    @Benchmark
+    public List<String> findWithGroupIds() {
+        int i = index++ & (QUERIES - 1);
+        return chikkar.find(words[i], groupIds[i]);
+    }
+
+    @Benchmark
+    public int findWithConsumer() {
+        int i = index++ & (QUERIES - 1);
+        return chikkar.find(words[i], groupIds[i], consumer);
+    }
+
+    @Benchmark
+    public int scanLeftmostLongest() {
+        return chikkar.scan(text, SpanScanner.Mode.LEFTMOST_LONGEST, spanConsumer);
+    }
+
+    @Benchmark
+    public int scanAllMatches() {
+        return chikkar.scan(text, SpanScanner.Mode.ALL_MATCHES, spanConsumer);
+    }
+}
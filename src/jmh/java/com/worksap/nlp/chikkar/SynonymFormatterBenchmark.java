@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2020 Works Applications Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.nlp.chikkar;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.worksap.nlp.chikkar.dictionary.BoundedCache;
+import com.worksap.nlp.chikkar.dictionary.Dictionary;
+import com.worksap.nlp.chikkar.dictionary.SyntheticDictionary;
+import com.worksap.nlp.sudachi.Morpheme;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SynonymFormatterBenchmark {
+
+    static final int QUERIES = 1024;
+    static final int GROUPS = 10000;
+    static final int SENTENCE_LENGTH = 20;
+    static final List<String> PART_OF_SPEECH = Arrays.asList("名詞", "普通名詞", "一般", "*", "*", "*");
+
+    /**
+     * A formatter set up without the settings of Sudachi.
+     */
+    static class Formatter extends SynonymFormatter {
+        Formatter(Chikkar chikkar, int cacheSize) {
+            this.chikkar = chikkar;
+            synonymDelimiter = ",";
+            columnDelimiter = "\t";
+            eosString = "EOS";
+            columnCache = (cacheSize > 0) ? new BoundedCache<>(cacheSize, BoundedCache.EvictionPolicy.LRU) : null;
+        }
+    }
+
+    @Param({ "0", "65536" })
+    int cacheSize;
+
+    Path directory;
+    Dictionary dictionary;
+    SynonymFormatter formatter;
+    Morpheme[] morphemes;
+    List<Morpheme> sentence;
+    PrintStream output;
+    int index;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("chikkar");
+        Path path = SyntheticDictionary.create(directory, "system", "同義", 1, GROUPS, 8);
+        dictionary = new Dictionary(path.toString(), false);
+        Chikkar chikkar = new Chikkar();
+        chikkar.addDictionary(dictionary);
+        formatter = new Formatter(chikkar, cacheSize);
+
+        morphemes = new Morpheme[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            int gid = 1 + (int) ((long) i * GROUPS / QUERIES);
+            morphemes[i] = morpheme(SyntheticDictionary.headword("同義", gid, 0), new int[] { gid });
+        }
+        sentence = Arrays.asList(morphemes).subList(0, SENTENCE_LENGTH);
+        output = new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+            }
+        }, false);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        formatter.chikkar.close();
+        dictionary.close();
+        SyntheticDictionary.delete(directory);
+    }
+
+    @Benchmark
+    public String formatMorpheme() {
+        return formatter.formatMorpheme(morphemes[index++ & (QUERIES - 1)]);
+    }
+
+    @Benchmark
+    public void printSentence() {
+        formatter.printSentence(sentence, output);
+    }
+
+    static Morpheme morpheme(String surface, int[] groupIds) {
+        return (Morpheme) Proxy.newProxyInstance(Morpheme.class.getClassLoader(), new Class<?>[] { Morpheme.class },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                    case "surface":
+                    case "dictionaryForm":
+                    case "normalizedForm":
+                    case "readingForm":
+                        return surface;
+                    case "partOfSpeech":
+                        return PART_OF_SPEECH;
+                    case "getSynonymGroupIds":
+                        return groupIds;
+                    default:
+                        return defaultValue(method.getReturnType());
+                    }
+                });
+    }
+
+    static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        } else if (type == short.class) {
+            return (short) 0;
+        } else if (type == int.class) {
+            return 0;
+        } else {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2020 Works Applications Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.nlp.chikkar.dictionary;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class DictionaryBuilderBenchmark {
+
+    @Param({ "1000", "10000" })
+    int groups;
+
+    Path directory;
+    Path source;
+    Path output;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("chikkar");
+        source = directory.resolve("source.csv");
+        output = directory.resolve("output.dic");
+        SyntheticDictionary.writeSource(source, "同義", 1, groups, 8);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        SyntheticDictionary.delete(directory);
+    }
+
+    @Benchmark
+    public long build() throws IOException {
+        SyntheticDictionary.build(source, output);
+        return Files.size(output);
+    }
+}
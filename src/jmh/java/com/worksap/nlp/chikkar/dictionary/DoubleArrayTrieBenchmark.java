@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2020 Works Applications Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.nlp.chikkar.dictionary;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DoubleArrayTrieBenchmark {
+
+    static final int QUERIES = 1024;
+
+    @Param({ "10000" })
+    int groups;
+
+    Path directory;
+    Dictionary dictionary;
+    DoubleArrayTrie trie;
+    String[] words;
+    byte[][] keys;
+    byte[][] texts;
+    IntConsumer consumer;
+    DoubleArrayTrie.PrefixCursor cursor;
+    int index;
+
+    @Setup
+    public void setUp(Blackhole blackhole) throws IOException {
+        directory = Files.createTempDirectory("chikkar");
+        Path path = SyntheticDictionary.create(directory, "system", "同義", 1, groups, 8);
+        dictionary = new Dictionary(path.toString(), true);
+        trie = dictionary.trie;
+
+        words = new String[QUERIES];
+        keys = new byte[QUERIES][];
+        texts = new byte[QUERIES][];
+        for (int i = 0; i < QUERIES; i++) {
+            int gid = 1 + (int) ((long) i * groups / QUERIES);
+            words[i] = SyntheticDictionary.headword("同義", gid, i % 8);
+            keys[i] = words[i].getBytes(StandardCharsets.UTF_8);
+            texts[i] = (words[i] + "を記念するセール").getBytes(StandardCharsets.UTF_8);
+        }
+        consumer = blackhole::consume;
+        cursor = trie.newPrefixCursor();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        dictionary.close();
+        SyntheticDictionary.delete(directory);
+    }
+
+    @Benchmark
+    public int[] exactMatch() {
+        return trie.lookup(keys[index++ & (QUERIES - 1)]);
+    }
+
+    @Benchmark
+    public int exactMatchWithCharSequence() {
+        return trie.lookup(words[index++ & (QUERIES - 1)], consumer);
+    }
+
+    @Benchmark
+    public void commonPrefixSearch(Blackhole blackhole) {
+        Iterator<int[]> iterator = trie.lookup(texts[index++ & (QUERIES - 1)], 0);
+        while (iterator.hasNext()) {
+            blackhole.consume(iterator.next());
+        }
+    }
+
+    @Benchmark
+    public void commonPrefixSearchWithCursor(Blackhole blackhole) {
+        cursor.reset(texts[index++ & (QUERIES - 1)], 0);
+        while (cursor.advance()) {
+            blackhole.consume(cursor.groupId());
+            blackhole.consume(cursor.matchLength());
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2020 Works Applications Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.nlp.chikkar.dictionary;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import com.worksap.nlp.chikkar.SynonymGroup;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SynonymGroupListBenchmark {
+
+    static final int QUERIES = 1024;
+
+    @Param({ "10000" })
+    int groups;
+
+    @Param({ "4", "16" })
+    int members;
+
+    @Param({ "NONE", "HEAP" })
+    LoadPolicy.Preload preload;
+
+    Path directory;
+    Dictionary dictionary;
+    SynonymCursor cursor;
+    int[] groupIds;
+    String[] words;
+    int index;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("chikkar");
+        Path path = SyntheticDictionary.create(directory, "system", "同義", 1, groups, members);
+        dictionary = new Dictionary(path.toString(), true, LoadPolicy.of(preload));
+        cursor = new SynonymCursor();
+        System.out.printf("%nheap: %,d bytes, mapped: %,d bytes%n", dictionary.getHeapSize(),
+                dictionary.getMappedSize());
+
+        groupIds = new int[QUERIES];
+        words = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            groupIds[i] = 1 + (int) ((long) i * groups / QUERIES);
+            words[i] = SyntheticDictionary.headword("同義", groupIds[i], 0);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        dictionary.close();
+        SyntheticDictionary.delete(directory);
+    }
+
+    @Benchmark
+    public Optional<SynonymGroup> getSynonymGroup() {
+        return dictionary.getSynonymGroup(groupIds[index++ & (QUERIES - 1)]);
+    }
+
+    @Benchmark
+    public int gatherHeadwords(Blackhole blackhole) {
+        int i = index++ & (QUERIES - 1);
+        return dictionary.gatherHeadwords(groupIds[i], 0, words[i], true, cursor, blackhole::consume);
+    }
+
+    @Benchmark
+    public void getSynonymsWithCursor(Blackhole blackhole) {
+        if (dictionary.getSynonyms(groupIds[index++ & (QUERIES - 1)], cursor)) {
+            while (cursor.next()) {
+                blackhole.consume(cursor.headword().length());
+                blackhole.consume(cursor.flags());
+            }
+        }
+    }
+}
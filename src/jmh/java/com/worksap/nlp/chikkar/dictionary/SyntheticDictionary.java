@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2020 Works Applications Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.nlp.chikkar.dictionary;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Synthetic synonym dictionaries for the benchmarks.
+ *
+ * <p>
+ * A group has {@code members} synonyms. The first synonym is an unambiguous
+ * noun, every fourth synonym is a verb and every third synonym is ambiguous.
+ */
+public class SyntheticDictionary {
+
+    private SyntheticDictionary() {
+    }
+
+    /**
+     * Returns the headword of the synonym in the group.
+     *
+     * @param prefix
+     *            the prefix of the headwords of the dictionary
+     * @param groupId
+     *            the group ID
+     * @param member
+     *            the index of the synonym in the group
+     * @return the headword
+     */
+    public static String headword(String prefix, int groupId, int member) {
+        return prefix + Integer.toString(groupId, 36) + "の" + member;
+    }
+
+    /**
+     * Writes the source of a dictionary.
+     *
+     * @param path
+     *            the path of the source
+     * @param prefix
+     *            the prefix of the headwords
+     * @param firstGroupId
+     *            the ID of the first group
+     * @param groups
+     *            the number of the groups
+     * @param members
+     *            the number of the synonyms in a group
+     * @throws IOException
+     *             if writing the file is failed
+     */
+    public static void writeSource(Path path, String prefix, int firstGroupId, int groups, int members)
+            throws IOException {
+        List<String> lines = new ArrayList<>(groups * (members + 1));
+        for (int gid = firstGroupId; gid < firstGroupId + groups; gid++) {
+            for (int i = 0; i < members; i++) {
+                int pos = (i % 4 == 3) ? 2 : 1;
+                int ambiguity = (i % 3 == 2) ? 1 : 0;
+                lines.add(String.format("%06d,%d,%d,%d,0,0,0,(),%s,,", gid, pos, ambiguity, i + 1,
+                        headword(prefix, gid, i)));
+            }
+            lines.add("");
+        }
+        Files.write(path, lines, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Builds a dictionary from the source.
+     *
+     * @param source
+     *            the path of the source
+     * @param output
+     *            the path of the dictionary
+     * @throws IOException
+     *             if reading or writing the files is failed
+     */
+    public static void build(Path source, Path output) throws IOException {
+        Logger.getLogger(DictionaryBuilder.class.getName()).setLevel(Level.WARNING);
+        DictionaryHeader header = new DictionaryHeader(DictionaryVersion.SYSTEM_DICT_VERSION_2, 0, "benchmark");
+        try (FileOutputStream stream = new FileOutputStream(output.toFile())) {
+            stream.write(header.toByte());
+            new DictionaryBuilder().build(source.toString(), stream);
+        }
+    }
+
+    /**
+     * Writes and builds a dictionary in the directory.
+     *
+     * @param directory
+     *            the directory to write the files
+     * @param name
+     *            the base name of the files
+     * @param prefix
+     *            the prefix of the headwords
+     * @param firstGroupId
+     *            the ID of the first group
+     * @param groups
+     *            the number of the groups
+     * @param members
+     *            the number of the synonyms in a group
+     * @return the path of the dictionary
+     * @throws IOException
+     *             if writing the files is failed
+     */
+    public static Path create(Path directory, String name, String prefix, int firstGroupId, int groups,
+            int members) throws IOException {
+        Path source = directory.resolve(name + ".csv");
+        Path output = directory.resolve(name + ".dic");
+        writeSource(source, prefix, firstGroupId, groups, members);
+        build(source, output);
+        return output;
+    }
+
+    /**
+     * Deletes the directory and its files.
+     *
+     * @param directory
+     *            the directory to delete
+     * @throws IOException
+     *             if deleting the files is failed
+     */
+    public static void delete(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+}
@@ -16,19 +16,70 @@
 
 package com.worksap.nlp.chikkar;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
+import com.worksap.nlp.chikkar.dictionary.BoundedCache;
+import com.worksap.nlp.chikkar.dictionary.CacheStatistics;
 import com.worksap.nlp.chikkar.dictionary.Dictionary;
+import com.worksap.nlp.chikkar.dictionary.DoubleArrayTrie;
+import com.worksap.nlp.chikkar.dictionary.FlagFilter;
+import com.worksap.nlp.chikkar.dictionary.Instrumentation;
+import com.worksap.nlp.chikkar.dictionary.SpanScanner;
+import com.worksap.nlp.chikkar.dictionary.SynonymCursor;
+import com.worksap.nlp.sudachi.Morpheme;
 
 /**
  * A container of synonym dictionaries.
+ *
+ * <p>
+ * The configuration can be changed while other threads are searching. Each
+ * search uses the configuration at its start, and never waits for a change.
+ * The dictionaries are retained while they are in use, so the caller may close
+ * its own references after adding them. The dictionaries removed from the
+ * configuration are released after the searches using them are finished, by
+ * the thread changing the configuration or by a background thread. The
+ * searches only mark the configuration in use, and never lock or release it.
  */
-public class Chikkar {
-    private List<Dictionary> dictionaries = new ArrayList<>();
-    private boolean enableVerb = false;
+public class Chikkar implements Closeable {
+    private static final Logger logger = Logger.getLogger(Chikkar.class.getName());
+    private static final long RECLAIM_DELAY_MILLIS = 10;
+    private static final ScheduledExecutorService reclaimer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "chikkar-reclaimer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicReference<Configuration> configuration = new AtomicReference<>(
+            new Configuration(new Dictionary[0], false, null));
+    private final ThreadLocal<Reader> readers = ThreadLocal.withInitial(this::newReader);
+    /** the readers of the threads, which are removed after the threads end */
+    private final Queue<WeakReference<Reader>> readerList = new ConcurrentLinkedQueue<>();
+    /** the configurations replaced while in use, which only the writers access */
+    private final List<Configuration> retired = new ArrayList<>();
+    private boolean isReclaimScheduled;
+    private volatile Instrumentation instrumentation = Instrumentation.getDefault();
 
     /**
      * Enable verb and adjective synonyms.
@@ -37,7 +88,52 @@ public class Chikkar {
      * adjectives.
      */
     public void enableVerb() {
-        enableVerb = true;
+        update(c -> c.enableVerb ? c : new Configuration(c.dictionaries, true, newCache(c.resultCache)));
+    }
+
+    /**
+     * Enable the cache of the results of {@link find}.
+     * 
+     * After this method is called, {@link find} returns an unmodifiable list which
+     * may be shared with other callers. The cache is cleared when the
+     * configuration is changed by {@link addDictionary} or {@link enableVerb}.
+     * 
+     * @param capacity
+     *            the maximum number of the cached results
+     * @param policy
+     *            the policy to evict the cached results
+     */
+    public void enableCache(int capacity, BoundedCache.EvictionPolicy policy) {
+        BoundedCache<FindKey, List<String>> cache = new BoundedCache<>(capacity, policy);
+        update(c -> new Configuration(c.dictionaries, c.enableVerb, cache));
+    }
+
+    /**
+     * Returns the statistics of the cache of the results.
+     * 
+     * @return an Optional describing the statistics of the cache, or an empty
+     *         Optional if the cache is not enabled
+     */
+    public Optional<CacheStatistics> getCacheStatistics() {
+        return Optional.ofNullable(configuration.get().resultCache).map(BoundedCache::statistics);
+    }
+
+    /**
+     * Replaces the instrumentation which receives the events of the searches.
+     * 
+     * The events of the dictionaries are received by the instrumentations of the
+     * dictionaries.
+     * 
+     * @param instrumentation
+     *            the instrumentation
+     * @see Dictionary#setInstrumentation
+     */
+    public void setInstrumentation(Instrumentation instrumentation) {
+        this.instrumentation = Objects.requireNonNull(instrumentation);
+    }
+
+    private static BoundedCache<FindKey, List<String>> newCache(BoundedCache<FindKey, List<String>> cache) {
+        return (cache == null) ? null : new BoundedCache<>(cache.capacity(), cache.policy());
     }
 
     /**
@@ -50,7 +146,192 @@ public class Chikkar {
      *            a synonym dictionary
      */
     public void addDictionary(Dictionary dictionary) {
-        dictionaries.add(0, dictionary);
+        update(c -> {
+            Dictionary[] dictionaries = new Dictionary[c.dictionaries.length + 1];
+            dictionaries[0] = dictionary;
+            System.arraycopy(c.dictionaries, 0, dictionaries, 1, c.dictionaries.length);
+            return new Configuration(dictionaries, c.enableVerb, newCache(c.resultCache));
+        });
+    }
+
+    /**
+     * Replaces all the synonym dictionaries at once.
+     * 
+     * The dictionaries are given in the order of {@link addDictionary}, and the
+     * later one takes precedence. The searches running in other threads continue
+     * with the previous dictionaries, which are released after the searches.
+     * 
+     * @param dictionaries
+     *            synonym dictionaries
+     */
+    public void setDictionaries(List<Dictionary> dictionaries) {
+        Dictionary[] array = new Dictionary[dictionaries.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = Objects.requireNonNull(dictionaries.get(array.length - 1 - i));
+        }
+        update(c -> new Configuration(array, c.enableVerb, newCache(c.resultCache)));
+    }
+
+    /**
+     * Replaces a synonym dictionary with another at the same precedence.
+     * 
+     * The searches running in other threads continue with the previous
+     * dictionary, which is released after the searches.
+     * 
+     * @param dictionary
+     *            the synonym dictionary to replace
+     * @param replacement
+     *            the new synonym dictionary
+     * @return {@code true} if the dictionary is replaced, or {@code false} if it
+     *         is not added
+     */
+    public boolean replaceDictionary(Dictionary dictionary, Dictionary replacement) {
+        Objects.requireNonNull(replacement);
+        boolean[] isReplaced = new boolean[1];
+        update(c -> {
+            Dictionary[] dictionaries = c.dictionaries.clone();
+            isReplaced[0] = false;
+            for (int i = 0; i < dictionaries.length; i++) {
+                if (dictionaries[i] == dictionary) {
+                    dictionaries[i] = replacement;
+                    isReplaced[0] = true;
+                }
+            }
+            return isReplaced[0] ? new Configuration(dictionaries, c.enableVerb, newCache(c.resultCache)) : c;
+        });
+        return isReplaced[0];
+    }
+
+    /**
+     * Removes all the synonym dictionaries.
+     * 
+     * The dictionaries are released after the searches running in other threads.
+     */
+    @Override
+    public void close() {
+        setDictionaries(Collections.emptyList());
+    }
+
+    private void update(UnaryOperator<Configuration> updater) {
+        Configuration current;
+        Configuration next;
+        do {
+            current = configuration.get();
+            next = updater.apply(current);
+            if (next == current) {
+                return;
+            }
+            if (!next.retain()) {
+                if (configuration.get() == current) {
+                    throw new IllegalStateException("the dictionary is closed");
+                }
+                // another writer has released a dictionary taken from the old configuration
+                continue;
+            }
+            if (configuration.compareAndSet(current, next)) {
+                break;
+            }
+            next.release();
+        } while (true);
+
+        synchronized (retired) {
+            retired.add(current);
+        }
+        reclaim();
+    }
+
+    /**
+     * Releases the retired configurations which no searches are using, and
+     * retries later in the background if some are still in use.
+     */
+    private void reclaim() {
+        List<Configuration> released = new ArrayList<>();
+        synchronized (retired) {
+            Iterator<Configuration> it = retired.iterator();
+            while (it.hasNext()) {
+                Configuration c = it.next();
+                if (!isActive(c)) {
+                    released.add(c);
+                    it.remove();
+                }
+            }
+            if (!retired.isEmpty() && !isReclaimScheduled) {
+                isReclaimScheduled = true;
+                reclaimer.schedule(this::reclaimLater, RECLAIM_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+            }
+        }
+        for (Configuration c : released) {
+            try {
+                c.release();
+            } catch (UncheckedIOException e) {
+                logger.log(Level.WARNING, "failed to release the dictionaries", e);
+            }
+        }
+    }
+
+    private void reclaimLater() {
+        synchronized (retired) {
+            isReclaimScheduled = false;
+        }
+        try {
+            reclaim();
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "failed to release the dictionaries", e);
+        }
+    }
+
+    private boolean isActive(Configuration c) {
+        Iterator<WeakReference<Reader>> it = readerList.iterator();
+        while (it.hasNext()) {
+            Reader reader = it.next().get();
+            if (reader == null) {
+                it.remove();
+            } else if (reader.active == c) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Reader newReader() {
+        Reader reader = new Reader();
+        readerList.add(new WeakReference<>(reader));
+        return reader;
+    }
+
+    private Expansion acquireExpansion() {
+        return readers.get().expansion();
+    }
+
+    /**
+     * Marks the current configuration as in use by the thread, and returns it.
+     *
+     * A search called from the consumer of another uses the configuration of
+     * the outer one.
+     */
+    private Configuration enter(Expansion expansion) {
+        Reader reader = expansion.reader;
+        Configuration config;
+        if (reader.depth == 0) {
+            do {
+                config = configuration.get();
+                reader.active = config;
+                // the configuration may be retired before it is marked
+            } while (configuration.get() != config);
+        } else {
+            config = reader.active;
+        }
+        reader.depth++;
+        expansion.instrumentation = instrumentation;
+        return config;
+    }
+
+    private static void exit(Expansion expansion) {
+        expansion.instrumentation = null;
+        Reader reader = expansion.reader;
+        if (--reader.depth == 0) {
+            reader.active = null;
+        }
     }
 
     /**
@@ -82,36 +363,407 @@ public class Chikkar {
      * @return a list of synonyms
      */
     public List<String> find(String word, int[] groupIds) {
-        for (Dictionary dictionary : dictionaries) {
-            int[] gids = dictionary.lookup(word, groupIds);
-            if (gids.length == 0) {
-                continue;
+        return find(word, groupIds, (FlagFilter) null);
+    }
+
+    /**
+     * Returns synonyms for the specified word, which are accepted by the filter.
+     * 
+     * The synonyms are searched in the same way as {@link find(String, int[])},
+     * but selected by {@code filter} instead of {@link enableVerb}. The flags of
+     * the synonyms are tested before their headwords are read.
+     * 
+     * @param word
+     *            keyword
+     * @param groupIds
+     *            synonym group IDs
+     * @param filter
+     *            the filter of the synonyms, or {@code null} to select them by
+     *            {@link enableVerb}
+     * @return a list of synonyms
+     */
+    public List<String> find(String word, int[] groupIds, FlagFilter filter) {
+        Expansion expansion = acquireExpansion();
+        Configuration config = enter(expansion);
+        try {
+            return find(expansion, config, word, groupIds, filter);
+        } finally {
+            exit(expansion);
+        }
+    }
+
+    private List<String> find(Expansion expansion, Configuration config, String word, int[] groupIds,
+            FlagFilter filter) {
+        Instrumentation ins = expansion.instrumentation;
+        long start = ins.isEnabled() ? System.nanoTime() : 0L;
+        BoundedCache<FindKey, List<String>> cache = config.resultCache;
+        List<String> result;
+        if (cache == null) {
+            result = lookup(expansion, config, word, groupIds, filter);
+        } else {
+            result = cache.get(new FindKey(word, groupIds, filter));
+            ins.cacheAccessed(Instrumentation.Cache.RESULT, result != null);
+            if (result == null) {
+                result = Collections.unmodifiableList(lookup(expansion, config, word, groupIds, filter));
+                cache.put(new FindKey(word, (groupIds == null) ? null : groupIds.clone(), filter), result);
             }
-            List<String> ret = new ArrayList<>();
-            for (int gid : gids) {
-                gatherHeadword(word, gid, dictionary, ret);
+        }
+        if (ins.isEnabled()) {
+            ins.found(System.nanoTime() - start);
+        }
+        return result;
+    }
+
+    /**
+     * Returns synonyms for each of the specified morphemes.
+     * 
+     * The normalized forms and the synonym group IDs of the morphemes are used as
+     * keys of {@link find(String, int[])}.
+     * 
+     * @param morphemes
+     *            a list of morphemes
+     * @return a list of lists of synonyms in the same order as {@code morphemes}
+     * @see #findAll(String[], int[][])
+     */
+    public List<List<String>> findAll(List<Morpheme> morphemes) {
+        int size = morphemes.size();
+        String[] words = new String[size];
+        int[][] groupIds = new int[size][];
+        for (int i = 0; i < size; i++) {
+            Morpheme morpheme = morphemes.get(i);
+            words[i] = morpheme.normalizedForm();
+            groupIds[i] = morpheme.getSynonymGroupIds();
+        }
+        return findAll(words, groupIds);
+    }
+
+    /**
+     * Returns synonyms for each of the specified words.
+     * 
+     * Each pair of {@code words[i]} and {@code groupIds[i]} is searched as in
+     * {@link find(String, int[])}, but the pairs that appear more than once in the
+     * batch are searched only once. The lists for such pairs are the same
+     * unmodifiable instance. All the pairs are searched with the same
+     * configuration.
+     * 
+     * @param words
+     *            keywords
+     * @param groupIds
+     *            synonym group IDs for each keyword, or {@code null}
+     * @return a list of lists of synonyms in the same order as {@code words}
+     * @throws IllegalArgumentException
+     *             if the length of {@code groupIds} differs from {@code words}
+     */
+    public List<List<String>> findAll(String[] words, int[][] groupIds) {
+        if (groupIds != null && groupIds.length != words.length) {
+            throw new IllegalArgumentException("the numbers of words and group IDs are different");
+        }
+        Expansion expansion = acquireExpansion();
+        Configuration config = enter(expansion);
+        try {
+            Map<FindKey, List<String>> resolved = new HashMap<>();
+            List<List<String>> results = new ArrayList<>(words.length);
+            for (int i = 0; i < words.length; i++) {
+                int[] gids = (groupIds == null) ? null : groupIds[i];
+                String word = words[i];
+                results.add(resolved.computeIfAbsent(new FindKey(word, gids, null),
+                        k -> Collections.unmodifiableList(find(expansion, config, word, gids, null))));
             }
-            return ret;
+            return results;
+        } finally {
+            exit(expansion);
         }
-        return Collections.emptyList();
     }
 
-    private void gatherHeadword(String word, int gid, Dictionary dictionary, List<String> headwords) {
-        Optional<SynonymGroup> synonyms = dictionary.getSynonymGroup(gid);
-        if (!synonyms.isPresent()) {
-            return;
+    /**
+     * Passes synonyms for the specified word to the consumer.
+     * 
+     * The synonyms are selected in the same way as {@link find(String, int[])},
+     * but neither a list of synonyms nor an array of synonym group IDs is
+     * allocated. The word is encoded while traversing the tries, and the group
+     * IDs are streamed from the dictionaries.
+     * 
+     * The synonyms are views of the dictionary and valid only while the consumer
+     * is called. Use {@code toString()} to keep them.
+     * 
+     * @param word
+     *            keyword
+     * @param groupIds
+     *            synonym group IDs
+     * @param consumer
+     *            the consumer of synonyms
+     * @return the number of synonyms passed to the consumer
+     */
+    public int find(CharSequence word, int[] groupIds, Consumer<? super CharSequence> consumer) {
+        return find(word, groupIds, null, consumer);
+    }
+
+    /**
+     * Passes synonyms for the specified word, which are accepted by the filter,
+     * to the consumer.
+     * 
+     * The synonyms are searched in the same way as
+     * {@link find(CharSequence, int[], Consumer)}, but selected by {@code filter}
+     * instead of {@link enableVerb}. The flags of the synonyms are tested before
+     * their headwords are read.
+     * 
+     * @param word
+     *            keyword
+     * @param groupIds
+     *            synonym group IDs
+     * @param filter
+     *            the filter of the synonyms, or {@code null} to select them by
+     *            {@link enableVerb}
+     * @param consumer
+     *            the consumer of synonyms
+     * @return the number of synonyms passed to the consumer
+     */
+    public int find(CharSequence word, int[] groupIds, FlagFilter filter, Consumer<? super CharSequence> consumer) {
+        Expansion expansion = acquireExpansion();
+        Configuration config = enter(expansion);
+        Instrumentation ins = expansion.instrumentation;
+        long start = ins.isEnabled() ? System.nanoTime() : 0L;
+        try {
+            return expansion.run(config, word, groupIds, filter, consumer);
+        } finally {
+            exit(expansion);
+            if (ins.isEnabled()) {
+                ins.found(System.nanoTime() - start);
+            }
         }
-        if (synonyms.get().lookup(word).orElseThrow(IllegalStateException::new).hasAmbiguity()) {
-            return;
+    }
+
+    /**
+     * Passes the spans of the text which are headwords of synonyms to the
+     * consumer, with the synonym group IDs.
+     * 
+     * The text is scanned once without morphological analysis. Each span is
+     * reported with the groups of the dictionary that takes precedence for the
+     * headword, as in {@link find(String)}. The offsets are the indices of the
+     * chars.
+     * 
+     * @param text
+     *            the text to scan
+     * @param mode
+     *            the mode to select the spans
+     * @param consumer
+     *            the consumer of the spans
+     * @return the number of the spans passed to the consumer
+     */
+    public int scan(CharSequence text, SpanScanner.Mode mode, SpanScanner.SpanConsumer consumer) {
+        Expansion expansion = acquireExpansion();
+        Configuration config = enter(expansion);
+        try {
+            return expansion.scanner.scan(config.dictionaries, text, mode, consumer);
+        } finally {
+            exit(expansion);
         }
-        for (Synonym s : synonyms.get().getSynonyms()) {
-            if (s.getHeadword().equals(word)) {
-                continue;
+    }
+
+    /**
+     * Passes the spans of the UTF-8 text which are headwords of synonyms to the
+     * consumer, with the synonym group IDs.
+     * 
+     * The spans are selected as in
+     * {@link scan(CharSequence, SpanScanner.Mode, SpanScanner.SpanConsumer)}, but
+     * the offsets are the indices of the bytes in {@code text}.
+     * 
+     * @param text
+     *            the UTF-8 text to scan
+     * @param offset
+     *            the offset of the text in {@code text}
+     * @param length
+     *            the number of the bytes of the text
+     * @param mode
+     *            the mode to select the spans
+     * @param consumer
+     *            the consumer of the spans
+     * @return the number of the spans passed to the consumer
+     */
+    public int scan(byte[] text, int offset, int length, SpanScanner.Mode mode, SpanScanner.SpanConsumer consumer) {
+        Expansion expansion = acquireExpansion();
+        Configuration config = enter(expansion);
+        try {
+            return expansion.scanner.scan(config.dictionaries, text, offset, length, mode, consumer);
+        } finally {
+            exit(expansion);
+        }
+    }
+
+    private List<String> lookup(Expansion expansion, Configuration config, String word, int[] groupIds,
+            FlagFilter filter) {
+        List<String> headwords = new ArrayList<>();
+        expansion.run(config, word, groupIds, filter, h -> headwords.add(h.toString()));
+        return headwords.isEmpty() ? Collections.emptyList() : headwords;
+    }
+
+    /**
+     * An immutable set of the settings, which holds a reference to each of its
+     * dictionaries while it is published or in use.
+     */
+    private static class Configuration {
+        /** in the order of the precedence */
+        final Dictionary[] dictionaries;
+        final boolean enableVerb;
+        final BoundedCache<FindKey, List<String>> resultCache;
+
+        Configuration(Dictionary[] dictionaries, boolean enableVerb,
+                BoundedCache<FindKey, List<String>> resultCache) {
+            this.dictionaries = dictionaries;
+            this.enableVerb = enableVerb;
+            this.resultCache = resultCache;
+        }
+
+        /**
+         * Adds a reference to each of the dictionaries, or adds none and returns
+         * {@code false} if some of them are already unmapped.
+         */
+        boolean retain() {
+            for (int i = 0; i < dictionaries.length; i++) {
+                if (!dictionaries[i].tryRetain()) {
+                    release(i);
+                    return false;
+                }
             }
-            if (!enableVerb && !s.isNoun()) {
-                continue;
+            return true;
+        }
+
+        void release() {
+            release(dictionaries.length);
+        }
+
+        /**
+         * Releases the first dictionaries, closing all of them even if some fail.
+         */
+        private void release(int length) {
+            UncheckedIOException failure = null;
+            for (int i = 0; i < length; i++) {
+                try {
+                    dictionaries[i].close();
+                } catch (IOException e) {
+                    if (failure == null) {
+                        failure = new UncheckedIOException(e);
+                    } else {
+                        failure.addSuppressed(e);
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    /**
+     * The state of the searches in a thread.
+     *
+     * It refers to nothing in {@link Chikkar} but the configuration in use, so
+     * that the instance can be collected while the threads live.
+     */
+    private static class Reader {
+        /** the configuration in use, read by the writers */
+        private volatile Configuration active;
+        /** the number of the nested searches */
+        private int depth;
+        /** the buffers for each depth of the searches */
+        private Expansion[] expansions = new Expansion[0];
+
+        Expansion expansion() {
+            if (depth >= expansions.length) {
+                expansions = Arrays.copyOf(expansions, depth + 1);
+                expansions[depth] = new Expansion(this);
+            }
+            return expansions[depth];
+        }
+    }
+
+    /**
+     * The buffers to search in a thread.
+     */
+    private static class Expansion implements DoubleArrayTrie.PostingConsumer {
+        private final Reader reader;
+        private final SynonymCursor cursor = new SynonymCursor();
+        private final SpanScanner scanner = new SpanScanner();
+        private Instrumentation instrumentation;
+        private CharSequence word;
+        private Dictionary dictionary;
+        private boolean enableVerb;
+        private FlagFilter filter;
+        private Consumer<? super CharSequence> consumer;
+        private int count;
+
+        Expansion(Reader reader) {
+            this.reader = reader;
+        }
+
+        int run(Configuration config, CharSequence word, int[] groupIds, FlagFilter filter,
+                Consumer<? super CharSequence> consumer) {
+            this.word = word;
+            enableVerb = config.enableVerb;
+            this.filter = filter;
+            this.consumer = consumer;
+            count = 0;
+            try {
+                for (int i = 0; i < config.dictionaries.length; i++) {
+                    dictionary = config.dictionaries[i];
+                    boolean isHit = dictionary.lookupPostings(word, groupIds, this) > 0;
+                    instrumentation.lookedUp(i, isHit);
+                    if (isHit) {
+                        break;
+                    }
+                }
+                return count;
+            } finally {
+                this.word = null;
+                this.filter = null;
+                dictionary = null;
+                this.consumer = null;
+            }
+        }
+
+        @Override
+        public void accept(int groupId, int memberIndex, boolean hasAmbiguity) {
+            if (hasAmbiguity) {
+                instrumentation.filtered(Instrumentation.Filter.AMBIGUITY, 1);
+                return;
+            }
+            if (filter == null) {
+                count += dictionary.gatherHeadwords(groupId, memberIndex, word, enableVerb, cursor, consumer);
+            } else {
+                count += dictionary.gatherHeadwords(groupId, memberIndex, word, filter, cursor, consumer);
+            }
+        }
+    }
+
+    private static class FindKey {
+        private final String word;
+        private final int[] groupIds;
+        private final FlagFilter filter;
+        private final int hash;
+
+        FindKey(String word, int[] groupIds, FlagFilter filter) {
+            this.word = word;
+            this.groupIds = groupIds;
+            this.filter = filter;
+            hash = (word.hashCode() * 31 + Arrays.hashCode(groupIds)) * 31 + Objects.hashCode(filter);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof FindKey)) {
+                return false;
             }
-            headwords.add(s.getHeadword());
+            FindKey other = (FindKey) obj;
+            return hash == other.hash && Objects.equals(word, other.word) && Arrays.equals(groupIds, other.groupIds)
+                    && Objects.equals(filter, other.filter);
         }
     }
 }
@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2020 Works Applications Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.nlp.chikkar;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.worksap.nlp.chikkar.dictionary.Dictionary;
+
+/**
+ * A synonym dictionary in {@link Chikkar} which is reloaded when its file is
+ * updated.
+ *
+ * <p>
+ * The new file is mapped and validated while the current dictionary is in use,
+ * and then replaces it in {@link Chikkar} at once. The searches running at the
+ * time continue with the previous dictionary, which is unmapped after them.
+ *
+ * <p>
+ * The file must be updated by renaming a complete file to its path, for
+ * example by {@link Files#move} with
+ * {@link java.nio.file.StandardCopyOption#ATOMIC_MOVE}. Writing to the
+ * mapped file in place changes the dictionary in use.
+ *
+ * <pre>{@code
+ * ReloadableDictionary userDict = new ReloadableDictionary(chikkar, Paths.get("user_syn.dic"), true);
+ * userDict.start(10, TimeUnit.SECONDS);
+ * }</pre>
+ */
+public class ReloadableDictionary implements Closeable {
+
+    private static final Logger logger = Logger.getLogger(ReloadableDictionary.class.getName());
+
+    private final Chikkar chikkar;
+    private final Path path;
+    private final boolean enableTrie;
+    private Dictionary dictionary;
+    private Stamp stamp;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Reads the synonym dictionary from the specified file and adds it to
+     * {@code chikkar}.
+     *
+     * @param chikkar
+     *            the container to add the dictionary to
+     * @param path
+     *            path of synonym dictionary file
+     * @param enableTrie
+     *            true to enable trie, otherwise false
+     * @throws IOException
+     *             if reading the file is failed
+     */
+    public ReloadableDictionary(Chikkar chikkar, Path path, boolean enableTrie) throws IOException {
+        this.chikkar = chikkar;
+        this.path = path;
+        this.enableTrie = enableTrie;
+        stamp = Stamp.of(path);
+        dictionary = open();
+        chikkar.addDictionary(dictionary);
+        dictionary.close();
+    }
+
+    /**
+     * Reloads the dictionary if the file is updated.
+     *
+     * If the new file is not a valid dictionary, the current dictionary remains
+     * in use and the file is read again at the next call.
+     *
+     * @return {@code true} if the dictionary is reloaded, otherwise {@code false}
+     * @throws IOException
+     *             if reading the file is failed
+     */
+    public synchronized boolean reload() throws IOException {
+        Stamp current = Stamp.of(path);
+        if (current.equals(stamp)) {
+            return false;
+        }
+        Dictionary next = open();
+        try {
+            if (!chikkar.replaceDictionary(dictionary, next)) {
+                throw new IllegalStateException("the dictionary is removed from chikkar");
+            }
+        } finally {
+            next.close();
+        }
+        dictionary = next;
+        stamp = current;
+        logger.info(() -> "reloaded " + path + ": " + next.getDictionaryHeader().getDescription());
+        return true;
+    }
+
+    private Dictionary open() throws IOException {
+        try {
+            return new Dictionary(path.toString(), enableTrie);
+        } catch (RuntimeException e) {
+            throw new IOException("invalid dictionary: " + path, e);
+        }
+    }
+
+    /**
+     * Checks the file periodically in a background thread.
+     *
+     * @param period
+     *            the period between the checks
+     * @param unit
+     *            the time unit of {@code period}
+     * @throws IllegalStateException
+     *             if the checks are already started
+     */
+    public synchronized void start(long period, TimeUnit unit) {
+        if (scheduler != null) {
+            throw new IllegalStateException("already started");
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "chikkar-reloader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                reload();
+            } catch (IOException | RuntimeException e) {
+                logger.log(Level.WARNING, "failed to reload " + path, e);
+            }
+        }, period, period, unit);
+    }
+
+    /**
+     * Stops the periodic checks. The dictionary remains in {@link Chikkar}.
+     */
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    private static class Stamp {
+        private final Object fileKey;
+        private final long lastModifiedTime;
+        private final long size;
+
+        private Stamp(Object fileKey, long lastModifiedTime, long size) {
+            this.fileKey = fileKey;
+            this.lastModifiedTime = lastModifiedTime;
+            this.size = size;
+        }
+
+        static Stamp of(Path path) throws IOException {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            return new Stamp(attributes.fileKey(), attributes.lastModifiedTime().toMillis(), attributes.size());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(fileKey, lastModifiedTime, size);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Stamp)) {
+                return false;
+            }
+            Stamp other = (Stamp) obj;
+            return Objects.equals(fileKey, other.fileKey) && lastModifiedTime == other.lastModifiedTime
+                    && size == other.size;
+        }
+    }
+}
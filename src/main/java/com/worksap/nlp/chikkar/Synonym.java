@@ -90,11 +90,14 @@ public class Synonym {
 
     /**
      * Returns the IDs of the lexemes that corresponds to this synonym.
+     *
+     * The returned array is a copy, since a synonym may be shared through the
+     * cache of the dictionary.
      * 
      * @return an array of the IDs of the lexemes of this synonym
      */
     public int[] getLexemeIds() {
-        return lexemeIds;
+        return lexemeIds.clone();
     }
 
     /**
@@ -17,14 +17,34 @@
 package com.worksap.nlp.chikkar;
 
 import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
 
+import com.worksap.nlp.chikkar.dictionary.BoundedCache;
+import com.worksap.nlp.chikkar.dictionary.BufferCharSequence;
 import com.worksap.nlp.chikkar.dictionary.Dictionary;
 import com.worksap.nlp.sudachi.Morpheme;
 import com.worksap.nlp.sudachi.SimpleMorphemeFormatter;
 
+/**
+ * A formatter of Sudachi which appends the synonyms to each morpheme.
+ *
+ * <p>
+ * The line of a morpheme is built in a builder reused by each thread, and the
+ * synonyms are appended while they are found. The formatted synonyms are kept
+ * for each pair of the normalized form and the synonym group IDs, up to
+ * {@code synonymCacheSize} pairs.
+ */
 public class SynonymFormatter extends SimpleMorphemeFormatter {
+    static final int DEFAULT_CACHE_SIZE = 65536;
+
     Chikkar chikkar;
     String synonymDelimiter;
+    /** the formatted synonyms, or {@code null} if they are not kept */
+    BoundedCache<ColumnKey, String> columnCache;
+    private final ThreadLocal<StringBuilder> builders = ThreadLocal.withInitial(StringBuilder::new);
 
     @Override
     public void setUp() throws IOException {
@@ -36,10 +56,14 @@ public class SynonymFormatter extends SimpleMorphemeFormatter {
         if (systemDictPath == null) {
             throw new IllegalArgumentException("no systemDict");
         }
-        chikkar.addDictionary(new Dictionary(systemDictPath, false));
+        try (Dictionary dictionary = new Dictionary(systemDictPath, false)) {
+            chikkar.addDictionary(dictionary);
+        }
 
         for (String path : settings.getStringList("userDict")) {
-            chikkar.addDictionary(new Dictionary(path, true));
+            try (Dictionary dictionary = new Dictionary(path, true)) {
+                chikkar.addDictionary(dictionary);
+            }
         }
 
         if (settings.getBoolean("enableVerb", false)) {
@@ -47,11 +71,110 @@ public class SynonymFormatter extends SimpleMorphemeFormatter {
         }
 
         synonymDelimiter = settings.getString("synonymDelimiter", ",");
+
+        int cacheSize = settings.getInt("synonymCacheSize", DEFAULT_CACHE_SIZE);
+        columnCache = (cacheSize > 0) ? new BoundedCache<>(cacheSize, BoundedCache.EvictionPolicy.LRU) : null;
     }
 
     @Override
     public String formatMorpheme(Morpheme morpheme) {
-        return super.formatMorpheme(morpheme) + columnDelimiter
-                + String.join(synonymDelimiter, chikkar.find(morpheme.normalizedForm(), morpheme.getSynonymGroupIds()));
+        StringBuilder builder = builders.get();
+        builder.setLength(0);
+        appendMorpheme(builder, morpheme);
+        return builder.toString();
+    }
+
+    /**
+     * Prints the lines of the morphemes and the end of the sentence at once.
+     */
+    @Override
+    public void printSentence(List<Morpheme> sentence, PrintStream output) {
+        StringBuilder builder = builders.get();
+        builder.setLength(0);
+        String separator = System.lineSeparator();
+        for (Morpheme morpheme : sentence) {
+            appendMorpheme(builder, morpheme).append(separator);
+        }
+        builder.append(eosString).append(separator);
+        output.append(builder);
+    }
+
+    private StringBuilder appendMorpheme(StringBuilder builder, Morpheme morpheme) {
+        builder.append(super.formatMorpheme(morpheme)).append(columnDelimiter);
+        return appendSynonyms(builder, morpheme.normalizedForm(), morpheme.getSynonymGroupIds());
+    }
+
+    /**
+     * Appends the synonyms of the word joined by the delimiter to the builder.
+     */
+    StringBuilder appendSynonyms(StringBuilder builder, String word, int[] groupIds) {
+        BoundedCache<ColumnKey, String> cache = columnCache;
+        ColumnKey key = null;
+        if (cache != null) {
+            key = new ColumnKey(word, groupIds);
+            String column = cache.get(key);
+            if (column != null) {
+                return builder.append(column);
+            }
+        }
+
+        int start = builder.length();
+        chikkar.find(word, groupIds, synonym -> {
+            if (builder.length() > start) {
+                builder.append(synonymDelimiter);
+            }
+            if (synonym instanceof BufferCharSequence) {
+                ((BufferCharSequence) synonym).appendTo(builder);
+            } else {
+                builder.append(synonym);
+            }
+        });
+
+        if (cache != null) {
+            key.copyGroupIds();
+            cache.put(key, builder.substring(start));
+        }
+        return builder;
+    }
+
+    static class ColumnKey {
+        private final String word;
+        private int[] groupIds;
+        private final int hash;
+
+        /**
+         * Constructs a key which refers to the array of the caller.
+         */
+        ColumnKey(String word, int[] groupIds) {
+            this.word = word;
+            this.groupIds = groupIds;
+            hash = word.hashCode() * 31 + Arrays.hashCode(groupIds);
+        }
+
+        /**
+         * Replaces the group IDs with a copy before the key is stored.
+         */
+        void copyGroupIds() {
+            if (groupIds != null) {
+                groupIds = groupIds.clone();
+            }
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof ColumnKey)) {
+                return false;
+            }
+            ColumnKey other = (ColumnKey) obj;
+            return hash == other.hash && Objects.equals(word, other.word) && Arrays.equals(groupIds, other.groupIds);
+        }
     }
 }
@@ -19,28 +19,46 @@ package com.worksap.nlp.chikkar.dictionary;
 import java.io.Closeable;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class BinaryDictionary implements Closeable {
 
     ByteBuffer bytes;
     DictionaryHeader header;
     DoubleArrayTrie trie;
+    SectionDirectory sections;
     int offset;
+    volatile Instrumentation instrumentation = Instrumentation.getDefault();
+    private final String fileName;
+    private final AtomicInteger references = new AtomicInteger(1);
+    private volatile Runnable releaseListener;
 
     BinaryDictionary(String fileName) throws IOException {
+        this.fileName = fileName;
         bytes = MMap.map(fileName);
         offset = 0;
 
-        header = new DictionaryHeader(bytes, offset);
-        offset += header.storageSize();
+        try {
+            header = new DictionaryHeader(bytes, offset);
+            offset += header.storageSize();
 
-        if (!header.isDictionary()) {
+            if (!header.isDictionary()) {
+                throw new IOException("invalid dictionary");
+            }
+
+            if (DictionaryVersion.hasSectionDirectory(header.getVersion())) {
+                sections = new SectionDirectory(bytes, offset);
+                trie = new DoubleArrayTrie(sections.section(SectionDirectory.TRIE),
+                        sections.section(SectionDirectory.ID_TABLE));
+            } else {
+                trie = new DoubleArrayTrie(bytes, offset);
+                offset += trie.storageSize();
+            }
+        } catch (IOException | RuntimeException e) {
             MMap.unmap(bytes);
-            throw new IOException("invalid dictionary");
+            throw e;
         }
-
-        trie = new DoubleArrayTrie(bytes, offset);
-        offset += trie.storageSize();
     }
 
     public static BinaryDictionary readSystemDictionary(String fileName) throws IOException {
@@ -52,12 +70,98 @@ public class BinaryDictionary implements Closeable {
         return dict;
     }
 
+    /**
+     * Adds a reference to the dictionary.
+     * 
+     * The dictionary is unmapped when {@link #close} is called once for the
+     * construction and once for each call of this method.
+     * 
+     * @throws IllegalStateException
+     *             if the dictionary is already unmapped
+     */
+    public void retain() {
+        if (!tryRetain()) {
+            throw new IllegalStateException("the dictionary is closed");
+        }
+    }
+
+    /**
+     * Adds a reference to the dictionary as {@link #retain}, or returns
+     * {@code false} if it is already unmapped.
+     * 
+     * @return {@code true} if the reference is added
+     */
+    public boolean tryRetain() {
+        int count;
+        do {
+            count = references.get();
+            if (count <= 0) {
+                return false;
+            }
+        } while (!references.compareAndSet(count, count + 1));
+        return true;
+    }
+
+    /**
+     * Sets the listener which is called after the dictionary is unmapped.
+     */
+    void setReleaseListener(Runnable listener) {
+        releaseListener = listener;
+    }
+
+    /**
+     * Releases a reference to the dictionary, and unmaps it if no references
+     * remain.
+     * 
+     * @throws IOException
+     *             if unmapping the dictionary is failed
+     */
     @Override
     public void close() throws IOException {
-        MMap.unmap(bytes);
+        int count;
+        do {
+            count = references.get();
+            if (count <= 0) {
+                return;
+            }
+        } while (!references.compareAndSet(count, count - 1));
+        if (count == 1) {
+            Instrumentation ins = instrumentation;
+            long start = ins.isEnabled() ? System.nanoTime() : 0L;
+            try {
+                MMap.unmap(bytes);
+                if (ins.isEnabled()) {
+                    ins.dictionaryUnloaded(fileName, System.nanoTime() - start);
+                }
+            } finally {
+                Runnable listener = releaseListener;
+                if (listener != null) {
+                    listener.run();
+                }
+            }
+        }
     }
 
     public DictionaryHeader getDictionaryHeader() {
         return header;
     }
+
+    /**
+     * Returns the file of the dictionary.
+     * 
+     * @return the path of the file
+     */
+    public String getFileName() {
+        return fileName;
+    }
+
+    /**
+     * Replaces the instrumentation which receives the events of the dictionary.
+     * 
+     * @param instrumentation
+     *            the instrumentation
+     */
+    public void setInstrumentation(Instrumentation instrumentation) {
+        this.instrumentation = Objects.requireNonNull(instrumentation);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,353 @@
+/*
+ * Copyright (c) 2020 Works Applications Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.nlp.chikkar.dictionary;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * A thread-safe cache with a bounded number of entries.
+ *
+ * <p>
+ * The entries are distributed to the segments by the hash codes of the keys,
+ * and each segment evicts its own entries with the specified policy. The cache
+ * does not accept {@code null} values.
+ *
+ * @param <K>
+ *            the type of keys
+ * @param <V>
+ *            the type of values
+ */
+public class BoundedCache<K, V> {
+
+    /**
+     * Policies to select an entry to evict.
+     */
+    public enum EvictionPolicy {
+        /** evicts the least recently used entry */
+        LRU,
+        /** evicts the least frequently used entry */
+        LFU,
+    }
+
+    private static final int MAX_SEGMENTS = 16;
+    private static final int MIN_SEGMENT_CAPACITY = 16;
+
+    private final int capacity;
+    private final EvictionPolicy policy;
+    private final Segment<K, V>[] segments;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     * Constructs a new cache with the specified capacity and eviction policy.
+     *
+     * @param capacity
+     *            the maximum number of entries
+     * @param policy
+     *            the policy to select an entry to evict
+     * @throws IllegalArgumentException
+     *             if {@code capacity} is not positive
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public BoundedCache(int capacity, EvictionPolicy policy) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.policy = policy;
+
+        int n = 1;
+        while (n < MAX_SEGMENTS && n * 2 * MIN_SEGMENT_CAPACITY <= capacity) {
+            n *= 2;
+        }
+        segments = new Segment[n];
+        for (int i = 0; i < n; i++) {
+            int segmentCapacity = capacity / n + ((i < capacity % n) ? 1 : 0);
+            segments[i] = (policy == EvictionPolicy.LFU) ? new LfuSegment<>(segmentCapacity)
+                    : new LruSegment<>(segmentCapacity);
+        }
+    }
+
+    private Segment<K, V> segmentFor(Object key) {
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        return segments[h & (segments.length - 1)];
+    }
+
+    /**
+     * Returns the value associated with the specified key.
+     *
+     * @param key
+     *            the key
+     * @return the value, or {@code null} if the cache contains no value for the key
+     */
+    public V get(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        V value;
+        synchronized (segment) {
+            value = segment.get(key);
+        }
+        if (value == null) {
+            missCount.increment();
+        } else {
+            hitCount.increment();
+        }
+        return value;
+    }
+
+    /**
+     * Associates the value with the specified key.
+     *
+     * If the segment of the key is full, an entry is evicted.
+     *
+     * @param key
+     *            the key
+     * @param value
+     *            the value
+     */
+    public void put(K key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("value is null");
+        }
+        Segment<K, V> segment = segmentFor(key);
+        boolean evicted;
+        synchronized (segment) {
+            evicted = segment.put(key, value);
+        }
+        if (evicted) {
+            evictionCount.increment();
+        }
+    }
+
+    /**
+     * Returns the value associated with the specified key, computing it with the
+     * specified function if the cache contains no value for the key.
+     *
+     * The function is called outside the lock, so it may be called more than once
+     * for the same key by concurrent callers.
+     *
+     * @param key
+     *            the key
+     * @param loader
+     *            the function to compute a value
+     * @return the current or the computed value
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> loader) {
+        V value = get(key);
+        if (value == null) {
+            value = loader.apply(key);
+            put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Removes all the entries.
+     */
+    public void clear() {
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of the entries.
+     *
+     * @return the number of the entries
+     */
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Returns the maximum number of the entries.
+     *
+     * @return the maximum number of the entries
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the policy to select an entry to evict.
+     *
+     * @return the eviction policy
+     */
+    public EvictionPolicy policy() {
+        return policy;
+    }
+
+    /**
+     * Returns a snapshot of the counters of this cache.
+     *
+     * @return the statistics of this cache
+     */
+    public CacheStatistics statistics() {
+        return new CacheStatistics(hitCount.sum(), missCount.sum(), evictionCount.sum(), size(), capacity);
+    }
+
+    private interface Segment<K, V> {
+        V get(Object key);
+
+        /** Returns {@code true} if an entry is evicted. */
+        boolean put(K key, V value);
+
+        void clear();
+
+        int size();
+    }
+
+    private static class LruSegment<K, V> implements Segment<K, V> {
+        private final int capacity;
+        private final LinkedHashMap<K, V> map;
+
+        LruSegment(int capacity) {
+            this.capacity = capacity;
+            map = new LinkedHashMap<>(16, 0.75f, true);
+        }
+
+        @Override
+        public V get(Object key) {
+            return map.get(key);
+        }
+
+        @Override
+        public boolean put(K key, V value) {
+            if (map.put(key, value) != null || map.size() <= capacity) {
+                return false;
+            }
+            Iterator<K> eldest = map.keySet().iterator();
+            eldest.next();
+            eldest.remove();
+            return true;
+        }
+
+        @Override
+        public void clear() {
+            map.clear();
+        }
+
+        @Override
+        public int size() {
+            return map.size();
+        }
+    }
+
+    private static class LfuSegment<K, V> implements Segment<K, V> {
+        private static class Node<K, V> {
+            final K key;
+            V value;
+            int frequency = 1;
+
+            Node(K key, V value) {
+                this.key = key;
+                this.value = value;
+            }
+        }
+
+        private final int capacity;
+        private final Map<K, Node<K, V>> nodes = new HashMap<>();
+        private final Map<Integer, LinkedHashSet<Node<K, V>>> frequencies = new HashMap<>();
+        private int minFrequency;
+
+        LfuSegment(int capacity) {
+            this.capacity = capacity;
+        }
+
+        @Override
+        public V get(Object key) {
+            Node<K, V> node = nodes.get(key);
+            if (node == null) {
+                return null;
+            }
+            touch(node);
+            return node.value;
+        }
+
+        private void touch(Node<K, V> node) {
+            LinkedHashSet<Node<K, V>> bucket = frequencies.get(node.frequency);
+            bucket.remove(node);
+            if (node.frequency == Integer.MAX_VALUE) {
+                bucket.add(node);
+                return;
+            }
+            if (bucket.isEmpty()) {
+                frequencies.remove(node.frequency);
+                if (minFrequency == node.frequency) {
+                    minFrequency++;
+                }
+            }
+            node.frequency++;
+            frequencies.computeIfAbsent(node.frequency, k -> new LinkedHashSet<>()).add(node);
+        }
+
+        @Override
+        public boolean put(K key, V value) {
+            Node<K, V> node = nodes.get(key);
+            if (node != null) {
+                node.value = value;
+                touch(node);
+                return false;
+            }
+
+            boolean evicted = false;
+            if (nodes.size() >= capacity) {
+                LinkedHashSet<Node<K, V>> bucket = frequencies.get(minFrequency);
+                Iterator<Node<K, V>> victim = bucket.iterator();
+                nodes.remove(victim.next().key);
+                victim.remove();
+                if (bucket.isEmpty()) {
+                    frequencies.remove(minFrequency);
+                }
+                evicted = true;
+            }
+            node = new Node<>(key, value);
+            nodes.put(key, node);
+            frequencies.computeIfAbsent(1, k -> new LinkedHashSet<>()).add(node);
+            minFrequency = 1;
+            return evicted;
+        }
+
+        @Override
+        public void clear() {
+            nodes.clear();
+            frequencies.clear();
+            minFrequency = 0;
+        }
+
+        @Override
+        public int size() {
+            return nodes.size();
+        }
+    }
+}
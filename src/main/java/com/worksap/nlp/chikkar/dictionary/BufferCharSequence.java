@@ -0,0 +1,247 @@
+/*
+ * Copyright (c) 2020 Works Applications Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.nlp.chikkar.dictionary;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A string stored in a dictionary, read without copying.
+ *
+ * <p>
+ * An instance is reused by {@link SynonymCursor} for every synonym, so it is
+ * valid only until the cursor moves. Use {@link #toString} to keep the string.
+ */
+public final class BufferCharSequence implements CharSequence {
+
+    private ByteBuffer bytes;
+    private int offset;
+    private int length;
+
+    private boolean isUtf8;
+    private int byteLength;
+    private char[] chars = new char[16];
+
+    /** the characters of the string if they are in an array, or {@code null} */
+    private char[] array;
+    private int arrayOffset;
+
+    BufferCharSequence() {
+    }
+
+    /**
+     * Points this sequence to the length-prefixed UTF-16 string at the specified
+     * position, and returns the position following the string.
+     */
+    int reset(ByteBuffer bytes, int position) {
+        this.bytes = bytes;
+        isUtf8 = false;
+        array = null;
+        length = readLength(bytes, position);
+        position += (length > Byte.MAX_VALUE) ? 2 : 1;
+        offset = position;
+        return position + 2 * length;
+    }
+
+    /**
+     * Points this sequence to the length-prefixed UTF-8 string at the specified
+     * position. The string is decoded when its characters are read.
+     */
+    void resetUtf8(ByteBuffer bytes, int position) {
+        this.bytes = bytes;
+        isUtf8 = true;
+        array = null;
+        byteLength = readLength(bytes, position);
+        offset = position + ((byteLength > Byte.MAX_VALUE) ? 2 : 1);
+        length = -1;
+    }
+
+    /**
+     * Points this sequence to the characters in the array.
+     */
+    void resetChars(char[] array, int offset, int length) {
+        bytes = null;
+        isUtf8 = false;
+        this.array = array;
+        arrayOffset = offset;
+        this.length = length;
+    }
+
+    private static int readLength(ByteBuffer bytes, int position) {
+        int first = bytes.get(position);
+        if (first < 0) {
+            return ((first & 0x7f) << 8) | Byte.toUnsignedInt(bytes.get(position + 1));
+        }
+        return first;
+    }
+
+    private void decode() {
+        if (chars.length < byteLength) {
+            chars = new char[Math.max(byteLength, chars.length * 2)];
+        }
+        int n = 0;
+        int end = offset + byteLength;
+        for (int i = offset; i < end;) {
+            int b = Byte.toUnsignedInt(bytes.get(i++));
+            if (b < 0x80) {
+                chars[n++] = (char) b;
+            } else if (b < 0xe0) {
+                chars[n++] = (char) (((b & 0x1f) << 6) | (bytes.get(i++) & 0x3f));
+            } else if (b < 0xf0) {
+                chars[n++] = (char) (((b & 0x0f) << 12) | ((bytes.get(i++) & 0x3f) << 6) | (bytes.get(i++) & 0x3f));
+            } else {
+                int codePoint = ((b & 0x07) << 18) | ((bytes.get(i++) & 0x3f) << 12) | ((bytes.get(i++) & 0x3f) << 6)
+                        | (bytes.get(i++) & 0x3f);
+                chars[n++] = Character.highSurrogate(codePoint);
+                chars[n++] = Character.lowSurrogate(codePoint);
+            }
+        }
+        length = n;
+        array = chars;
+        arrayOffset = 0;
+    }
+
+    @Override
+    public int length() {
+        if (length < 0) {
+            decode();
+        }
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length()) {
+            throw new IndexOutOfBoundsException("index: " + index + ", length: " + length);
+        }
+        return (array != null) ? array[arrayOffset + index] : bytes.getChar(offset + 2 * index);
+    }
+
+    /**
+     * Returns a copy of the subsequence.
+     */
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return toString().substring(start, end);
+    }
+
+    /**
+     * Returns {@code true} if this sequence represents the same characters as the
+     * specified sequence.
+     *
+     * A UTF-8 string is compared without decoding.
+     *
+     * @param text
+     *            the sequence to compare with
+     * @return {@code true} if the characters are the same, otherwise {@code false}
+     */
+    public boolean contentEquals(CharSequence text) {
+        if (isUtf8) {
+            return utf8Equals(text);
+        }
+        if (text.length() != length) {
+            return false;
+        }
+        if (array != null) {
+            for (int i = 0; i < length; i++) {
+                if (array[arrayOffset + i] != text.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        for (int i = 0; i < length; i++) {
+            if (bytes.getChar(offset + 2 * i) != text.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean utf8Equals(CharSequence text) {
+        int textLength = text.length();
+        if (textLength > byteLength || 3 * textLength < byteLength) {
+            return false;
+        }
+        int position = offset;
+        int end = offset + byteLength;
+        for (int i = 0; i < textLength; i++) {
+            int c = text.charAt(i);
+            if (Character.isSurrogate((char) c)) {
+                if (Character.isHighSurrogate((char) c) && i + 1 < textLength
+                        && Character.isLowSurrogate(text.charAt(i + 1))) {
+                    c = Character.toCodePoint((char) c, text.charAt(++i));
+                } else {
+                    c = '?'; // same as String#getBytes
+                }
+            }
+            int n = (c < 0x80) ? 1 : (c < 0x800) ? 2 : (c < 0x10000) ? 3 : 4;
+            if (position + n > end) {
+                return false;
+            }
+            if (n == 1) {
+                if (bytes.get(position) != c) {
+                    return false;
+                }
+            } else {
+                int shift = 6 * (n - 1);
+                if (Byte.toUnsignedInt(bytes.get(position)) != (((0xf00 >> n) & 0xff) | (c >> shift))) {
+                    return false;
+                }
+                for (int k = 1; k < n; k++) {
+                    shift -= 6;
+                    if (Byte.toUnsignedInt(bytes.get(position + k)) != (0x80 | ((c >> shift) & 0x3f))) {
+                        return false;
+                    }
+                }
+            }
+            position += n;
+        }
+        return position == end;
+    }
+
+    /**
+     * Appends the characters of this sequence to the builder.
+     *
+     * @param builder
+     *            the builder to append to
+     * @return the builder
+     */
+    public StringBuilder appendTo(StringBuilder builder) {
+        if (isUtf8 || array != null) {
+            int n = length();
+            return builder.append(array, arrayOffset, n);
+        }
+        builder.ensureCapacity(builder.length() + length);
+        for (int i = 0; i < length; i++) {
+            builder.append(bytes.getChar(offset + 2 * i));
+        }
+        return builder;
+    }
+
+    @Override
+    public String toString() {
+        if (isUtf8 || array != null) {
+            int n = length();
+            return new String(array, arrayOffset, n);
+        }
+        char[] copy = new char[length];
+        for (int i = 0; i < length; i++) {
+            copy[i] = bytes.getChar(offset + 2 * i);
+        }
+        return new String(copy);
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2020 Works Applications Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.nlp.chikkar.dictionary;
+
+import java.util.Iterator;
+import java.util.ServiceLoader;
+
+/**
+ * The holder of the default instrumentation, which is loaded at the first use.
+ */
+final class DefaultInstrumentation {
+
+    static final Instrumentation INSTANCE = load();
+
+    private DefaultInstrumentation() {
+    }
+
+    private static Instrumentation load() {
+        Iterator<Instrumentation> it = ServiceLoader.load(Instrumentation.class).iterator();
+        return it.hasNext() ? it.next() : Instrumentation.NOOP;
+    }
+}
@@ -17,8 +17,13 @@
 package com.worksap.nlp.chikkar.dictionary;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
 
 import com.worksap.nlp.chikkar.SynonymGroup;
 
@@ -27,8 +32,22 @@ import com.worksap.nlp.chikkar.SynonymGroup;
  */
 public class Dictionary extends BinaryDictionary {
 
-    private boolean enableTrie;
-    private SynonymGroupList groupList;
+    /** the sections read by {@link LoadPolicy.Preload#INDEX} */
+    private static final int[] INDEX_SECTIONS = { SectionDirectory.TRIE, SectionDirectory.ID_TABLE,
+            SectionDirectory.LAYER_TABLE, SectionDirectory.GROUP_INDEX, SectionDirectory.LEXEME_INDEX };
+    private static final int PAGE_SIZE = 4096;
+    /** the sum of the bytes read by {@link #touch}, which keeps the reads */
+    private static volatile int touched;
+
+    private final boolean enableTrie;
+    private final LayerTable layers;
+    private final SynonymGroupList groupList;
+    private final LexemeIndex lexemeIndex;
+    /** the groups decoded by {@link LoadPolicy.Preload#HEAP}, or {@code null} */
+    private volatile GroupColumns columns;
+    private final BoundedCache<Integer, Optional<SynonymGroup>> groupCache;
+    /** the time of the warm-up by the constructor in nanoseconds */
+    private long warmUpNanos;
 
     /**
      * Reads the synonym dictionary from the specified file.
@@ -36,6 +55,9 @@ public class Dictionary extends BinaryDictionary {
      * If {@code enableTrie} is {@code false}, a search by synonym group IDs takes
      * precedence over a search by the headword.
      * 
+     * If the dictionary is merged by {@link DictionaryMerger}, {@code enableTrie}
+     * is ignored and each layer is searched as it was merged.
+     * 
      * @param fileName
      *            path of synonym dictionary file
      * @param enableTrie
@@ -44,9 +66,208 @@ public class Dictionary extends BinaryDictionary {
      *             if reading the file is failed
      */
     public Dictionary(String fileName, boolean enableTrie) throws IOException {
+        this(fileName, enableTrie, null, System.nanoTime());
+    }
+
+    /**
+     * Reads the synonym dictionary from the specified file with a cache of the
+     * synonym groups.
+     * 
+     * Up to {@code cacheCapacity} decoded groups are kept and shared between
+     * callers of {@link #getSynonymGroup}.
+     * 
+     * @param fileName
+     *            path of synonym dictionary file
+     * @param enableTrie
+     *            true to enable trie, otherwise false
+     * @param cacheCapacity
+     *            the maximum number of the cached synonym groups
+     * @param policy
+     *            the policy to evict the cached synonym groups
+     * @throws IOException
+     *             if reading the file is failed
+     */
+    public Dictionary(String fileName, boolean enableTrie, int cacheCapacity, BoundedCache.EvictionPolicy policy)
+            throws IOException {
+        this(fileName, enableTrie, new BoundedCache<>(cacheCapacity, policy), System.nanoTime());
+    }
+
+    /**
+     * Reads the synonym dictionary from the specified file, and brings it into
+     * memory with the specified policy.
+     * 
+     * @param fileName
+     *            path of synonym dictionary file
+     * @param enableTrie
+     *            true to enable trie, otherwise false
+     * @param loadPolicy
+     *            the policy to bring the dictionary into memory
+     * @throws IOException
+     *             if reading the file is failed
+     * @see #warmUp
+     */
+    public Dictionary(String fileName, boolean enableTrie, LoadPolicy loadPolicy) throws IOException {
+        this(fileName, enableTrie, null, System.nanoTime());
+        warmUpOnLoad(loadPolicy);
+    }
+
+    /**
+     * Reads the synonym dictionary from the specified file with a cache of the
+     * synonym groups, and brings it into memory with the specified policy.
+     * 
+     * The groups warmed by the policy are put in the cache.
+     * 
+     * @param fileName
+     *            path of synonym dictionary file
+     * @param enableTrie
+     *            true to enable trie, otherwise false
+     * @param cacheCapacity
+     *            the maximum number of the cached synonym groups
+     * @param policy
+     *            the policy to evict the cached synonym groups
+     * @param loadPolicy
+     *            the policy to bring the dictionary into memory
+     * @throws IOException
+     *             if reading the file is failed
+     * @see #warmUp
+     */
+    public Dictionary(String fileName, boolean enableTrie, int cacheCapacity, BoundedCache.EvictionPolicy policy,
+            LoadPolicy loadPolicy) throws IOException {
+        this(fileName, enableTrie, new BoundedCache<>(cacheCapacity, policy), System.nanoTime());
+        warmUpOnLoad(loadPolicy);
+    }
+
+    private void warmUpOnLoad(LoadPolicy loadPolicy) throws IOException {
+        try {
+            warmUpNanos = warmUp(loadPolicy);
+        } catch (RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    private Dictionary(String fileName, boolean enableTrie, BoundedCache<Integer, Optional<SynonymGroup>> groupCache,
+            long start) throws IOException {
         super(fileName);
         this.enableTrie = enableTrie;
-        groupList = new SynonymGroupList(bytes, offset);
+        this.groupCache = groupCache;
+        try {
+            if (sections != null) {
+                LayerTable table = new LayerTable(sections.section(SectionDirectory.LAYER_TABLE));
+                layers = table.isEmpty() ? null : table;
+                groupList = new SynonymGroupList(sections.section(SectionDirectory.GROUP_INDEX),
+                        sections.section(SectionDirectory.GROUPS), sections.section(SectionDirectory.STRING_TABLE));
+                ByteBuffer index = sections.findSection(SectionDirectory.LEXEME_INDEX);
+                lexemeIndex = (index != null) ? new LexemeIndex(index) : null;
+            } else {
+                layers = null;
+                groupList = new SynonymGroupList(bytes, offset);
+                lexemeIndex = null;
+            }
+        } catch (IOException | RuntimeException e) {
+            // a malformed file may be read out of its bounds
+            close();
+            throw e;
+        }
+        loaded(start);
+    }
+
+    /**
+     * Brings the dictionary into memory with the specified policy, and returns
+     * the time it took.
+     * 
+     * The pages of the parts selected by {@link LoadPolicy#preload} are read, and
+     * then the groups of the hot headwords and the hot group IDs are read. If the
+     * dictionary has the cache of the synonym groups, the hot groups are put in
+     * it. A dictionary of the first version, which has no sections, is read
+     * whole for {@link LoadPolicy.Preload#INDEX}.
+     * 
+     * After {@link LoadPolicy.Preload#HEAP}, the groups are read from the arrays
+     * on the heap by {@link #getSynonymGroup} and {@link #gatherHeadwords}, but
+     * {@link #getSynonyms} still reads the file.
+     * 
+     * @param policy
+     *            the policy to bring the dictionary into memory
+     * @return the time to warm up the dictionary in nanoseconds
+     */
+    public long warmUp(LoadPolicy policy) {
+        if (policy.isLazy()) {
+            return 0L;
+        }
+        long start = System.nanoTime();
+        LoadPolicy.Preload preload = policy.preload();
+        if (preload == LoadPolicy.Preload.HEAP && columns == null) {
+            columns = new GroupColumns(groupList);
+        }
+        if ((preload == LoadPolicy.Preload.INDEX || preload == LoadPolicy.Preload.HEAP) && sections != null) {
+            for (int id : INDEX_SECTIONS) {
+                ByteBuffer section = findSectionQuietly(id);
+                if (section != null) {
+                    touch(section);
+                }
+            }
+        } else if (preload != LoadPolicy.Preload.NONE) {
+            if (bytes instanceof MappedByteBuffer) {
+                ((MappedByteBuffer) bytes).load();
+            } else {
+                touch(bytes);
+            }
+        }
+
+        SynonymCursor cursor = new SynonymCursor();
+        for (String word : policy.hotWords()) {
+            lookupPostings(word, null, (groupId, memberIndex, hasAmbiguity) -> warmGroup(groupId, cursor));
+        }
+        for (int groupId : policy.hotGroupIds()) {
+            warmGroup(groupId, cursor);
+        }
+
+        long nanos = System.nanoTime() - start;
+        Instrumentation ins = instrumentation;
+        if (ins.isEnabled()) {
+            ins.dictionaryWarmedUp(getFileName(), nanos);
+        }
+        return nanos;
+    }
+
+    private ByteBuffer findSectionQuietly(int id) {
+        try {
+            return sections.findSection(id);
+        } catch (IOException e) {
+            // the sections are checked when the dictionary is read
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Reads a byte of every page of the buffer.
+     */
+    private static void touch(ByteBuffer buffer) {
+        int sum = 0;
+        int limit = buffer.limit();
+        for (int i = 0; i < limit; i += PAGE_SIZE) {
+            sum += buffer.get(i);
+        }
+        touched += sum;
+    }
+
+    private void warmGroup(int groupId, SynonymCursor cursor) {
+        if (groupCache != null) {
+            groupCache.put(groupId, decode(groupId, FlagFilter.ALL));
+            return;
+        }
+        if (groupList.getSynonyms(groupId, cursor)) {
+            while (cursor.next()) {
+                cursor.headword().length();
+                cursor.category().length();
+            }
+        }
+    }
+
+    private void loaded(long start) {
+        if (instrumentation.isEnabled()) {
+            instrumentation.dictionaryLoaded(getFileName(), System.nanoTime() - start);
+        }
     }
 
     /**
@@ -64,6 +285,11 @@ public class Dictionary extends BinaryDictionary {
      * @return an array of synoym group IDs found, or an empty array if not found
      */
     public int[] lookup(String word, int[] groupIds) {
+        if (layers != null) {
+            IntStream.Builder builder = IntStream.builder();
+            lookupLayers(word, groupIds, (g, m, a) -> builder.add(g));
+            return builder.build().toArray();
+        }
         if (enableTrie || groupIds == null) {
             return trie.lookup(word.getBytes(StandardCharsets.UTF_8));
         } else {
@@ -71,6 +297,120 @@ public class Dictionary extends BinaryDictionary {
         }
     }
 
+    /**
+     * Passes the synonym group IDs that contain the specified headword or the
+     * specified synonym group IDs to the consumer.
+     * 
+     * The IDs are selected as in {@link #lookup(String, int[])}, but this method
+     * allocates no objects. The headword is encoded into UTF-8 while traversing
+     * the trie.
+     * 
+     * @param word
+     *            a headword to search for
+     * @param groupIds
+     *            an array of synonym group IDs to search for
+     * @param consumer
+     *            the consumer of the synonym group IDs
+     * @return the number of the synonym group IDs found
+     */
+    public int lookup(CharSequence word, int[] groupIds, IntConsumer consumer) {
+        if (layers != null) {
+            return lookupLayers(word, groupIds, (g, m, a) -> consumer.accept(g));
+        }
+        if (enableTrie || groupIds == null) {
+            return trie.lookup(word, consumer);
+        }
+        for (int groupId : groupIds) {
+            consumer.accept(groupId);
+        }
+        return groupIds.length;
+    }
+
+    /**
+     * Passes the synonym group IDs that contain the specified headword or the
+     * specified synonym group IDs to the consumer with the index and the
+     * ambiguity of the headword in each group.
+     * 
+     * The IDs are selected as in {@link #lookup(String, int[])}. The specified
+     * synonym group IDs are passed with the index {@code -1}.
+     * 
+     * @param word
+     *            a headword to search for
+     * @param groupIds
+     *            an array of synonym group IDs to search for
+     * @param consumer
+     *            the consumer of the synonym group IDs
+     * @return the number of the synonym group IDs found
+     */
+    public int lookupPostings(CharSequence word, int[] groupIds, DoubleArrayTrie.PostingConsumer consumer) {
+        if (layers != null) {
+            return lookupLayers(word, groupIds, consumer);
+        }
+        if (enableTrie || groupIds == null) {
+            return trie.lookupPostings(word, consumer);
+        }
+        for (int groupId : groupIds) {
+            consumer.accept(groupId, -1, false);
+        }
+        return groupIds.length;
+    }
+
+    /**
+     * Searches the merged layers as {@link com.worksap.nlp.chikkar.Chikkar} does
+     * with the separate dictionaries.
+     * 
+     * The postings of a headword are those of the first layer that contains it,
+     * followed by those of the first layer searched by the headwords that
+     * contains it, if the layers differ.
+     */
+    private int lookupLayers(CharSequence word, int[] groupIds, DoubleArrayTrie.PostingConsumer consumer) {
+        int index = trie.postingsIndex(word);
+        IdTable idTable = trie.getIdTable();
+        int layer = -1;
+        if (groupIds == null) {
+            if (index >= 0) {
+                layer = PostingInfo.layer(idTable.infoAt(index, 0));
+            }
+        } else {
+            if (index >= 0) {
+                int count = idTable.count(index);
+                for (int i = 0; i < count && layer < 0; i++) {
+                    int l = PostingInfo.layer(idTable.infoAt(index, i));
+                    if (layers.enableTrie(l)) {
+                        layer = l;
+                    }
+                }
+            }
+            int groupIdsLayer = layers.groupIdsLayer();
+            if (groupIds.length > 0 && groupIdsLayer >= 0 && (layer < 0 || layer > groupIdsLayer)) {
+                int count = 0;
+                for (int groupId : groupIds) {
+                    if (layers.isKeptGroupId(groupId)) {
+                        consumer.accept(groupId, -1, false);
+                        count++;
+                    }
+                }
+                return count;
+            }
+        }
+        if (layer < 0) {
+            return 0;
+        }
+        return idTable.forEach(index, layer, consumer);
+    }
+
+    /**
+     * Passes the postings at the index of the ID table to the consumer, as
+     * {@link #lookupPostings} does for the headword without group IDs.
+     */
+    int acceptPostings(int index, DoubleArrayTrie.PostingConsumer consumer) {
+        IdTable idTable = trie.getIdTable();
+        if (layers != null) {
+            return idTable.forEach(index, PostingInfo.layer(idTable.infoAt(index, 0)), consumer);
+        }
+        return idTable.forEach(index, consumer);
+    }
+
     /**
      * Returns a group of synonyms with the specified ID.
      * 
@@ -80,6 +420,323 @@ public class Dictionary extends BinaryDictionary {
      *         or an empty Optional
      */
     public Optional<SynonymGroup> getSynonymGroup(int groupId) {
-        return groupList.getSynonymGroup(groupId);
+        Instrumentation ins = instrumentation;
+        if (groupCache == null) {
+            return decode(groupId, FlagFilter.ALL);
+        }
+        Optional<SynonymGroup> group = groupCache.get(groupId);
+        ins.cacheAccessed(Instrumentation.Cache.GROUP, group != null);
+        if (group == null) {
+            group = decode(groupId, FlagFilter.ALL);
+            groupCache.put(groupId, group);
+        }
+        return group;
+    }
+
+    /**
+     * Decodes the group from the arrays on the heap if they are built, otherwise
+     * from the file.
+     */
+    private Optional<SynonymGroup> decode(int groupId, FlagFilter filter) {
+        GroupColumns c = columns;
+        if (c != null) {
+            return c.getSynonymGroup(groupId, filter);
+        }
+        instrumentation.groupDecoded();
+        return groupList.getSynonymGroup(groupId, filter);
+    }
+
+    /**
+     * Returns a group of synonyms with the specified ID, which has only the
+     * synonyms accepted by the filter.
+     * 
+     * The flags of the synonyms are tested before their strings are read. The
+     * cache of the synonym groups is used only if {@code filter} is
+     * {@link FlagFilter#ALL}.
+     * 
+     * @param groupId
+     *            a synonym group ID
+     * @param filter
+     *            the filter of the synonyms
+     * @return an Optional describing the group of synonyms with the specified ID,
+     *         or an empty Optional
+     */
+    public Optional<SynonymGroup> getSynonymGroup(int groupId, FlagFilter filter) {
+        if (filter.equals(FlagFilter.ALL)) {
+            return getSynonymGroup(groupId);
+        }
+        return decode(groupId, filter);
+    }
+
+    /**
+     * Places the cursor on the group of synonyms with the specified ID.
+     * 
+     * Unlike {@link #getSynonymGroup}, this method decodes no synonyms. The
+     * cache of the synonym groups is not used.
+     * 
+     * @param groupId
+     *            a synonym group ID
+     * @param cursor
+     *            the cursor to place
+     * @return {@code true} if the group is found, otherwise {@code false}
+     */
+    public boolean getSynonyms(int groupId, SynonymCursor cursor) {
+        return groupList.getSynonyms(groupId, cursor);
+    }
+
+    /**
+     * Passes the indices of the synonyms with the specified lexeme ID in the
+     * group to the consumer.
+     * 
+     * The lexeme IDs are numbered in each group. If the dictionary has the index
+     * of the lexemes, this method takes constant time. Otherwise, the synonyms in
+     * the group are scanned. Use {@link SynonymCursor#moveTo} to read the
+     * synonyms.
+     * 
+     * @param groupId
+     *            a synonym group ID
+     * @param lexemeId
+     *            a lexeme ID in the group
+     * @param consumer
+     *            the consumer of the indices of the synonyms
+     * @return the number of the synonyms passed to the consumer
+     */
+    public int lookupLexeme(int groupId, int lexemeId, IntConsumer consumer) {
+        if (lexemeIndex != null) {
+            return lexemeIndex.forEach(groupId, lexemeId, consumer);
+        }
+        SynonymCursor cursor = new SynonymCursor();
+        if (!groupList.getSynonyms(groupId, cursor)) {
+            return 0;
+        }
+        int count = 0;
+        while (cursor.next()) {
+            for (int i = 0; i < cursor.lexemeIdCount(); i++) {
+                if (cursor.lexemeIdAt(i) == lexemeId) {
+                    consumer.accept(cursor.index());
+                    count++;
+                    break;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns {@code true} if the dictionary has the index of the lexemes used by
+     * {@link #lookupLexeme}.
+     * 
+     * @return {@code true} if the dictionary has the index, otherwise
+     *         {@code false}
+     */
+    public boolean hasLexemeIndex() {
+        return lexemeIndex != null;
+    }
+
+    /**
+     * Passes the headwords of the synonyms of the word in the specified group to
+     * the consumer.
+     * 
+     * Nothing is passed if the word is ambiguous in the group. The word itself is
+     * not passed. If {@code enableVerb} is {@code false}, only the headwords of
+     * nouns are passed.
+     * 
+     * The headwords are views of the cursor and valid only while the consumer is
+     * called. Unless the dictionary is of the first version, the other fields of
+     * the synonyms are not read.
+     * 
+     * @param groupId
+     *            a synonym group ID
+     * @param word
+     *            a headword in the group
+     * @param enableVerb
+     *            true to pass verbs and adjectives, otherwise false
+     * @param cursor
+     *            the cursor to read the group
+     * @param consumer
+     *            the consumer of the headwords
+     * @return the number of the headwords passed to the consumer
+     * @throws IllegalStateException
+     *             if the group does not contain the word
+     */
+    public int gatherHeadwords(int groupId, CharSequence word, boolean enableVerb, SynonymCursor cursor,
+            Consumer<? super CharSequence> consumer) {
+        return gatherHeadwords(groupId, -1, word, enableVerb, cursor, consumer);
+    }
+
+    /**
+     * Passes the headwords of the synonyms of the word at the specified index in
+     * the group to the consumer.
+     * 
+     * If {@code memberIndex} is not negative, the ambiguity of the word is taken
+     * to be checked by the caller with {@link #lookupPostings}, and the synonyms
+     * are read without searching for the word. Otherwise, this method is the same
+     * as {@link #gatherHeadwords(int, CharSequence, boolean, SynonymCursor,
+     * Consumer)}.
+     * 
+     * @param groupId
+     *            a synonym group ID
+     * @param memberIndex
+     *            the index of the word in the group, or {@code -1} if unknown
+     * @param word
+     *            a headword in the group
+     * @param enableVerb
+     *            true to pass verbs and adjectives, otherwise false
+     * @param cursor
+     *            the cursor to read the group
+     * @param consumer
+     *            the consumer of the headwords
+     * @return the number of the headwords passed to the consumer
+     * @throws IllegalStateException
+     *             if the group does not contain the word
+     */
+    public int gatherHeadwords(int groupId, int memberIndex, CharSequence word, boolean enableVerb,
+            SynonymCursor cursor, Consumer<? super CharSequence> consumer) {
+        return gatherHeadwords(groupId, memberIndex, word, enableVerb ? FlagFilter.ALL : FlagFilter.NOUNS,
+                Instrumentation.Filter.POS, cursor, consumer);
+    }
+
+    /**
+     * Passes the headwords of the synonyms of the word at the specified index in
+     * the group, which are accepted by the filter, to the consumer.
+     * 
+     * This method is the same as {@link #gatherHeadwords(int, int, CharSequence,
+     * boolean, SynonymCursor, Consumer)} except that the synonyms are selected by
+     * {@code filter}. The flags of the synonyms are tested before their headwords
+     * are read.
+     * 
+     * @param groupId
+     *            a synonym group ID
+     * @param memberIndex
+     *            the index of the word in the group, or {@code -1} if unknown
+     * @param word
+     *            a headword in the group
+     * @param filter
+     *            the filter of the synonyms
+     * @param cursor
+     *            the cursor to read the group
+     * @param consumer
+     *            the consumer of the headwords
+     * @return the number of the headwords passed to the consumer
+     * @throws IllegalStateException
+     *             if the group does not contain the word
+     */
+    public int gatherHeadwords(int groupId, int memberIndex, CharSequence word, FlagFilter filter,
+            SynonymCursor cursor, Consumer<? super CharSequence> consumer) {
+        return gatherHeadwords(groupId, memberIndex, word, filter, Instrumentation.Filter.FLAGS, cursor, consumer);
+    }
+
+    private int gatherHeadwords(int groupId, int memberIndex, CharSequence word, FlagFilter filter,
+            Instrumentation.Filter reason, SynonymCursor cursor, Consumer<? super CharSequence> consumer) {
+        GroupColumns c = columns;
+        if (c != null) {
+            return gatherHeadwords(c, groupId, memberIndex, word, filter, reason, cursor, consumer);
+        }
+        if (!groupList.getSynonyms(groupId, cursor)) {
+            return 0;
+        }
+        Instrumentation ins = instrumentation;
+        ins.groupDecoded();
+        if (memberIndex < 0) {
+            if (!cursor.seek(word)) {
+                throw new IllegalStateException();
+            }
+            if (cursor.hasAmbiguity()) {
+                ins.filtered(Instrumentation.Filter.AMBIGUITY, 1);
+                return 0;
+            }
+        }
+        int count = cursor.acceptHeadwords(word, filter, consumer);
+        if (ins.isEnabled()) {
+            // the members other than the word which are not passed
+            int dropped = cursor.size() - 1 - count;
+            if (dropped > 0) {
+                ins.filtered(reason, dropped);
+            }
+        }
+        return count;
+    }
+
+    private int gatherHeadwords(GroupColumns c, int groupId, int memberIndex, CharSequence word, FlagFilter filter,
+            Instrumentation.Filter reason, SynonymCursor cursor, Consumer<? super CharSequence> consumer) {
+        int group = c.indexOf(groupId);
+        if (group < 0) {
+            return 0;
+        }
+        Instrumentation ins = instrumentation;
+        if (memberIndex < 0) {
+            memberIndex = c.memberIndexOf(group, word);
+            if (memberIndex < 0) {
+                throw new IllegalStateException();
+            }
+            if (c.hasAmbiguity(group, memberIndex)) {
+                ins.filtered(Instrumentation.Filter.AMBIGUITY, 1);
+                return 0;
+            }
+        }
+        int count = c.acceptHeadwords(group, word, filter, cursor.headword(), consumer);
+        if (ins.isEnabled()) {
+            int dropped = c.groupSize(group) - 1 - count;
+            if (dropped > 0) {
+                ins.filtered(reason, dropped);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of the bytes of the arrays on the heap built by
+     * {@link LoadPolicy.Preload#HEAP}, without the headers of the objects.
+     * 
+     * @return the number of the bytes on the heap, or {@code 0} if the groups
+     *         are read from the file
+     */
+    public long getHeapSize() {
+        GroupColumns c = columns;
+        return (c != null) ? c.heapSize() : 0L;
+    }
+
+    /**
+     * Returns the time it took to bring the dictionary into memory with the
+     * policy given to the constructor, as {@link #warmUp} returns.
+     * 
+     * @return the time of the warm-up in nanoseconds, or {@code 0} if the
+     *         dictionary is read without a policy
+     */
+    public long getWarmUpNanos() {
+        return warmUpNanos;
+    }
+
+    /**
+     * Returns the number of the bytes of the mapped file.
+     * 
+     * @return the size of the file
+     */
+    public long getMappedSize() {
+        return bytes.capacity();
+    }
+
+    SynonymGroupList getGroupList() {
+        return groupList;
+    }
+
+    /**
+     * Returns {@code true} if the dictionary is merged from others by
+     * {@link DictionaryMerger}.
+     * 
+     * @return {@code true} if the dictionary is merged, otherwise {@code false}
+     */
+    public boolean isMerged() {
+        return layers != null;
+    }
+
+    /**
+     * Returns the statistics of the cache of the synonym groups.
+     * 
+     * @return an Optional describing the statistics of the cache, or an empty
+     *         Optional if the cache is not enabled
+     */
+    public Optional<CacheStatistics> getCacheStatistics() {
+        return Optional.ofNullable(groupCache).map(BoundedCache::statistics);
     }
 }
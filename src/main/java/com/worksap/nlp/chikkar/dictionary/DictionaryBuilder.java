@@ -16,6 +16,7 @@
 
 package com.worksap.nlp.chikkar.dictionary;
 
+import java.io.ByteArrayOutputStream;
 import java.io.Console;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
@@ -30,10 +31,17 @@ import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.SortedMap;
 import java.util.TreeMap;
 import java.util.Map.Entry;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
 import java.util.logging.LogManager;
 import java.util.logging.Logger;
 import java.util.stream.Stream;
@@ -43,6 +51,7 @@ import com.worksap.nlp.dartsclone.DoubleArray;
 public class DictionaryBuilder {
 
     static final int BUFFER_SIZE = 1024 * 1024;
+    static final int MAX_GROUP_SIZE = Short.MAX_VALUE;
 
     static class SynonymEntry {
         String headword;
@@ -52,7 +61,7 @@ public class DictionaryBuilder {
         String category;
     }
 
-    SortedMap<byte[], List<Integer>> trieKeys = new TreeMap<>((byte[] l, byte[] r) -> {
+    SortedMap<byte[], List<int[]>> trieKeys = new TreeMap<>((byte[] l, byte[] r) -> {
         int llen = l.length;
         int rlen = r.length;
         for (int i = 0; i < Math.min(llen, rlen); i++) {
@@ -63,12 +72,21 @@ public class DictionaryBuilder {
         return l.length - r.length;
     });
     List<List<SynonymEntry>> synonymGroups = new ArrayList<>();
+    boolean[] layerEnableTries = new boolean[0];
+    int keptGroupIdLimit;
+    Map<String, Integer> stringOffsets = new HashMap<>();
+    ByteArrayOutputStream stringTable = new ByteArrayOutputStream();
+    List<int[]> sections = new ArrayList<>();
+    long[] lexemeKeys = new long[1024];
+    int lexemeKeyCount = 0;
 
     protected Logger logger;
 
     ByteBuffer byteBuffer;
     Buffer buffer;
 
+    int parallelism = 1;
+
     DictionaryBuilder() {
         logger = Logger.getLogger(this.getClass().getName());
         byteBuffer = ByteBuffer.allocate(BUFFER_SIZE);
@@ -77,52 +95,234 @@ public class DictionaryBuilder {
     }
 
     void build(String inputPath, FileOutputStream output) throws IOException {
+        if (parallelism > 1) {
+            readInParallel(inputPath);
+        } else {
+            read(inputPath);
+        }
+
+        FileChannel outputChannel = output.getChannel();
+        writeSections(outputChannel);
+        outputChannel.close();
+    }
+
+    /**
+     * Writes the directory of the sections, which is filled in last, and the
+     * sections following it.
+     */
+    void writeSections(FileChannel output) throws IOException {
+        long directory = output.position();
+        output.position(directory + SectionDirectory.storageSize(SectionDirectory.SECTION_COUNT));
+        writeTrie(output);
+        writeLayerTable(output);
+        writeStringTable(output);
+        writeSynonymGroups(output);
+        writeLexemeIndex(output);
+
+        long end = output.position();
+        ByteBuffer entries = ByteBuffer.allocate(SectionDirectory.storageSize(sections.size()));
+        entries.order(ByteOrder.LITTLE_ENDIAN);
+        entries.putInt(sections.size());
+        for (int[] section : sections) {
+            for (int value : section) {
+                entries.putInt(value);
+            }
+        }
+        ((Buffer) entries).flip(); // a kludge for Java 9
+        output.position(directory);
+        output.write(entries);
+        output.position(end);
+    }
+
+    /**
+     * Pads the output to the alignment of the sections, and returns the position
+     * at which the section starts.
+     */
+    int beginSection(FileChannel output) throws IOException {
+        long position = output.position();
+        int padding = (int) (-position & (SectionDirectory.ALIGNMENT - 1));
+        if (padding > 0) {
+            output.write(ByteBuffer.allocate(padding));
+        }
+        if (position + padding > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("too large dictionary");
+        }
+        return (int) (position + padding);
+    }
+
+    /**
+     * Adds the section which is written from {@code start} to the current
+     * position to the directory.
+     */
+    void endSection(FileChannel output, int id, int start) throws IOException {
+        long length = output.position() - start;
+        if (start + length > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("too large dictionary");
+        }
+        sections.add(new int[] { id, start, (int) length });
+    }
+
+    void read(String inputPath) throws IOException {
         int lineno = -1;
         try (FileInputStream input = new FileInputStream(inputPath);
                 InputStreamReader isr = new InputStreamReader(input);
                 LineNumberReader reader = new LineNumberReader(isr)) {
             List<SynonymEntry> block = new ArrayList<>();
             String line;
-            int groupId = -1;
             while ((line = reader.readLine()) != null) {
                 lineno = reader.getLineNumber();
-                if (line.codePoints().allMatch(Character::isWhitespace)) {
-                    if (block.isEmpty()) {
-                        continue;
-                    } else {
-                        synonymGroups.add(block);
+                if (isBlank(line)) {
+                    if (!block.isEmpty()) {
+                        addSynonymGroup(block);
                         block = new ArrayList<>();
-                        groupId = -1;
                     }
                 } else {
                     SynonymEntry entry = parseLine(line);
-                    if (entry == null) {
-                        continue;
+                    if (entry != null) {
+                        addEntry(block, entry);
                     }
-                    if (groupId < 0) {
-                        groupId = entry.groupId;
-                    } else if (groupId != entry.groupId) {
-                        throw new IllegalArgumentException("group ID is changed in block");
-                    }
-                    trieKeys.computeIfAbsent(entry.headword.getBytes(StandardCharsets.UTF_8), k -> new ArrayList<>())
-                            .add(entry.groupId);
-                    block.add(entry);
                 }
             }
             if (!block.isEmpty()) {
-                synonymGroups.add(block);
+                addSynonymGroup(block);
             }
         } catch (Exception e) {
             if (lineno > 0) {
-                logger.severe("Error: " + e.getMessage() + " at line " + lineno + " in " + inputPath + "\n");
+                logError(e, lineno, inputPath);
             }
             throw e;
         }
+    }
 
-        FileChannel outputChannel = output.getChannel();
-        writeTrie(outputChannel);
-        writeSynonymGroups(outputChannel);
-        outputChannel.close();
+    /**
+     * Reads the input, parsing the blocks of the synonym groups in parallel.
+     *
+     * The groups are added in the order of the input, so the output is the same
+     * as {@link #read}. If some blocks have errors, the first one in the input is
+     * reported.
+     */
+    void readInParallel(String inputPath) throws IOException {
+        List<Block> blocks = new ArrayList<>();
+        try (FileInputStream input = new FileInputStream(inputPath);
+                InputStreamReader isr = new InputStreamReader(input);
+                LineNumberReader reader = new LineNumberReader(isr)) {
+            Block block = null;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (isBlank(line)) {
+                    block = null;
+                } else {
+                    if (block == null) {
+                        block = new Block(reader.getLineNumber());
+                        blocks.add(block);
+                    }
+                    block.lines.add(line);
+                }
+            }
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new ParseTask(this::parseBlock, blocks, 0, blocks.size()));
+        } finally {
+            pool.shutdown();
+        }
+
+        for (Block block : blocks) {
+            if (block.error != null) {
+                logError(block.error, block.errorLine, inputPath);
+                throw block.error;
+            }
+            if (!block.entries.isEmpty()) {
+                addSynonymGroup(block.entries);
+            }
+        }
+    }
+
+    static class Block {
+        final int firstLine;
+        final List<String> lines = new ArrayList<>();
+        List<SynonymEntry> entries;
+        RuntimeException error;
+        int errorLine;
+
+        Block(int firstLine) {
+            this.firstLine = firstLine;
+        }
+    }
+
+    static class ParseTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private static final int THRESHOLD = 256;
+
+        private final transient Consumer<Block> parser;
+        private final transient List<Block> blocks;
+        private final int begin;
+        private final int end;
+
+        ParseTask(Consumer<Block> parser, List<Block> blocks, int begin, int end) {
+            this.parser = parser;
+            this.blocks = blocks;
+            this.begin = begin;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - begin <= THRESHOLD) {
+                for (int i = begin; i < end; i++) {
+                    parser.accept(blocks.get(i));
+                }
+            } else {
+                int middle = (begin + end) >>> 1;
+                invokeAll(new ParseTask(parser, blocks, begin, middle), new ParseTask(parser, blocks, middle, end));
+            }
+        }
+    }
+
+    void parseBlock(Block block) {
+        List<SynonymEntry> entries = new ArrayList<>(block.lines.size());
+        for (int i = 0; i < block.lines.size(); i++) {
+            try {
+                SynonymEntry entry = parseLine(block.lines.get(i));
+                if (entry != null) {
+                    addEntry(entries, entry);
+                }
+            } catch (RuntimeException e) {
+                block.error = e;
+                block.errorLine = block.firstLine + i;
+                return;
+            }
+        }
+        block.entries = entries;
+    }
+
+    static boolean isBlank(String line) {
+        return line.codePoints().allMatch(Character::isWhitespace);
+    }
+
+    static void addEntry(List<SynonymEntry> block, SynonymEntry entry) {
+        if (!block.isEmpty() && block.get(0).groupId != entry.groupId) {
+            throw new IllegalArgumentException("group ID is changed in block");
+        }
+        if (block.size() >= MAX_GROUP_SIZE) {
+            throw new IllegalArgumentException("too many synonyms in group");
+        }
+        block.add(entry);
+    }
+
+    void addSynonymGroup(List<SynonymEntry> entries) throws IOException {
+        for (int i = 0; i < entries.size(); i++) {
+            SynonymEntry entry = entries.get(i);
+            int info = PostingInfo.encode(i, entry.flags.hasAmbiguity());
+            trieKeys.computeIfAbsent(entry.headword.getBytes(StandardCharsets.UTF_8), k -> new ArrayList<>())
+                    .add(new int[] { entry.groupId, info });
+        }
+        synonymGroups.add(entries);
+    }
+
+    void logError(Exception e, int lineno, String inputPath) {
+        logger.severe("Error: " + e.getMessage() + " at line " + lineno + " in " + inputPath + "\n");
     }
 
     SynonymEntry parseLine(String line) {
@@ -151,27 +351,44 @@ public class DictionaryBuilder {
     }
 
     void writeTrie(FileChannel output) throws IOException {
-        DoubleArray trie = new DoubleArray();
-
         int size = trieKeys.size();
 
         byte[][] keys = new byte[size][];
         int[] values = new int[size];
-        ByteBuffer idTable = ByteBuffer.allocate(trieKeys.size() * (1 + 4 * 256));
+        int idTableSize = 0;
+        for (List<int[]> postings : trieKeys.values()) {
+            idTableSize += 1 + 8 * postings.size();
+        }
+        ByteBuffer idTable = ByteBuffer.allocate(idTableSize);
         idTable.order(ByteOrder.LITTLE_ENDIAN);
 
         int i = 0;
-        for (Entry<byte[], List<Integer>> entry : trieKeys.entrySet()) {
+        for (Entry<byte[], List<int[]>> entry : trieKeys.entrySet()) {
             keys[i] = entry.getKey();
             values[i] = idTable.position();
             i++;
-            List<Integer> ids = entry.getValue();
-            idTable.put((byte) ids.size());
-            for (int id : ids) {
-                idTable.putInt(id);
+            List<int[]> postings = entry.getValue();
+            checkPostingsSize(postings.size());
+            idTable.put((byte) postings.size());
+            for (int[] posting : postings) {
+                idTable.putInt(posting[0]);
+                idTable.putInt(posting[1]);
             }
         }
 
+        writeDoubleArray(output, keys, values);
+
+        logger.info("writing the word-ID table...");
+        int start = beginSection(output);
+        ((Buffer) idTable).flip(); // a kludge for Java 9
+        output.write(idTable);
+        endSection(output, SectionDirectory.ID_TABLE, start);
+        printSize(idTable.position());
+    }
+
+    void writeDoubleArray(FileChannel output, byte[][] keys, int[] values) throws IOException {
+        DoubleArray trie = new DoubleArray();
+
         logger.info("building the trie");
         trie.build(keys, values, (n, s) -> {
             if (n % ((s / 10) + 1) == 0) {
@@ -181,66 +398,253 @@ public class DictionaryBuilder {
         logger.info("done\n");
 
         logger.info("writing the trie...");
+        int start = beginSection(output);
+        output.write(trie.byteArray());
+        endSection(output, SectionDirectory.TRIE, start);
+        printSize(trie.size() * 4L);
+    }
+
+    void writeLayerTable(FileChannel output) throws IOException {
+        int start = beginSection(output);
         buffer.clear();
-        byteBuffer.putInt(trie.size());
+        if (layerEnableTries.length > 0) {
+            reserve(4 + layerEnableTries.length);
+            byteBuffer.putInt(keptGroupIdLimit);
+        }
+        for (boolean enableTrie : layerEnableTries) {
+            byteBuffer.put((byte) (enableTrie ? 1 : 0));
+        }
         buffer.flip();
         output.write(byteBuffer);
         buffer.clear();
+        endSection(output, SectionDirectory.LAYER_TABLE, start);
+    }
 
-        output.write(trie.byteArray());
-        printSize(trie.size() * 4 + 4L);
-        trie = null;
+    /**
+     * Returns the offset of the string in the string table, adding the string if
+     * it is not in the table yet.
+     *
+     * Each string is stored once in UTF-8, as the length in bytes followed by the
+     * bytes. The length takes one byte if it is less than 128, otherwise two bytes
+     * with the highest bit set.
+     */
+    int addString(String text) {
+        Integer offset = stringOffsets.get(text);
+        if (offset != null) {
+            return offset;
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("too long string: " + text.substring(0, 32) + "...");
+        }
+        offset = stringTable.size();
+        if (bytes.length <= Byte.MAX_VALUE) {
+            stringTable.write(bytes.length);
+        } else {
+            stringTable.write((bytes.length >> 8) | 0x80);
+            stringTable.write(bytes.length & 0xff);
+        }
+        stringTable.write(bytes, 0, bytes.length);
+        stringOffsets.put(text, offset);
+        return offset;
+    }
 
-        logger.info("writing the word-ID table...");
-        byteBuffer.putInt(idTable.position());
-        buffer.flip();
+    /**
+     * Writes the distinct headwords and categories of the synonym groups in
+     * UTF-8, each of which is stored only once.
+     */
+    void writeStringTable(FileChannel output) throws IOException {
+        for (List<SynonymEntry> entries : synonymGroups) {
+            for (SynonymEntry entry : entries) {
+                addString(entry.headword);
+                addString(entry.category);
+            }
+        }
 
-        output.write(byteBuffer);
-        buffer.clear();
+        logger.info("writing the string table...");
+        int start = beginSection(output);
+        output.write(ByteBuffer.wrap(stringTable.toByteArray()));
+        endSection(output, SectionDirectory.STRING_TABLE, start);
+        printSize(stringTable.size());
+    }
 
-        ((Buffer) idTable).flip(); // a kludge for Java 9
-        output.write(idTable);
-        printSize(idTable.position() + 4L);
-        idTable = null;
+    static void checkPostingsSize(int size) {
+        if (size > 0xff) {
+            throw new IllegalArgumentException("too many groups for a headword: " + size);
+        }
     }
 
+    /**
+     * Writes the index of the groups, which is filled in after the groups, and
+     * the groups. The offsets in the index are relative to the section of the
+     * groups.
+     */
     void writeSynonymGroups(FileChannel output) throws IOException {
-        long mark = output.position();
-        output.position(mark + 4 * synonymGroups.size() * 2 + 4);
+        sortSynonymGroups();
 
-        ByteBuffer offsets = ByteBuffer.allocate(4 * synonymGroups.size() * 2 + 4);
+        ByteBuffer offsets = ByteBuffer.allocate(8 * synonymGroups.size());
         offsets.order(ByteOrder.LITTLE_ENDIAN);
-        offsets.putInt(synonymGroups.size());
+        int index = beginSection(output);
+        output.position(index + (long) offsets.capacity());
+        endSection(output, SectionDirectory.GROUP_INDEX, index);
 
         logger.info("writing the synonym groups...");
         buffer.clear();
-        long base = output.position();
+        int start = beginSection(output);
         for (List<SynonymEntry> entries : synonymGroups) {
-            if (entries.isEmpty()) {
-                continue;
-            }
             offsets.putInt(entries.get(0).groupId);
-            offsets.putInt((int) output.position());
-
-            byteBuffer.putShort((short) entries.size());
-            for (SynonymEntry entry : entries) {
-                writeString(entry.headword);
-                writeShortArray(entry.lexemeIds);
-                byteBuffer.putShort(entry.flags.encode());
-                writeString(entry.category);
+            offsets.putInt((int) (output.position() - start));
 
-            }
+            writeSynonymGroup(entries);
             buffer.flip();
             output.write(byteBuffer);
             buffer.clear();
         }
-        printSize(output.position() - base);
+        endSection(output, SectionDirectory.GROUPS, start);
+        printSize(output.position() - start);
 
         logger.info("writing synonym groups offsets...");
-        output.position(mark);
+        long end = output.position();
+        output.position(index);
         ((Buffer) offsets).flip(); // a kludge for Java 9
         output.write(offsets);
-        printSize(offsets.position());
+        output.position(end);
+        printSize(offsets.capacity());
+    }
+
+    /**
+     * Writes the synonym group into {@code byteBuffer}.
+     *
+     * The member table has the positions of the members relative to the group,
+     * and the members refer to their strings in the string table.
+     */
+    void writeSynonymGroup(List<SynonymEntry> entries) {
+        int start = byteBuffer.position();
+        List<Integer> nouns = new ArrayList<>();
+        for (int i = 0; i < entries.size(); i++) {
+            if (entries.get(i).flags.isNoun()) {
+                nouns.add(i);
+            }
+        }
+        reserve(4 + 4 * entries.size() + 2 * nouns.size());
+        byteBuffer.putShort((short) entries.size());
+        byteBuffer.putShort((short) nouns.size());
+        int memberTable = byteBuffer.position();
+        byteBuffer.position(memberTable + 4 * entries.size());
+        for (int i : nouns) {
+            byteBuffer.putShort((short) i);
+        }
+        for (int i = 0; i < entries.size(); i++) {
+            SynonymEntry entry = entries.get(i);
+            addLexemeKeys(entry, i);
+            reserve(4);
+            byteBuffer.putInt(memberTable + 4 * i, byteBuffer.position() - start);
+            byteBuffer.putInt(addString(entry.headword));
+            writeShortArray(entry.lexemeIds);
+            reserve(6);
+            byteBuffer.putShort(entry.flags.encode());
+            byteBuffer.putInt(addString(entry.category));
+        }
+    }
+
+    /**
+     * Keeps the keys of the index of the lexemes for the member at {@code index}
+     * in the group. A key has the group ID, the lexeme ID and the index from the
+     * highest bits, so the sorted keys are grouped by the lexemes.
+     */
+    void addLexemeKeys(SynonymEntry entry, int index) {
+        for (int lexemeId : entry.lexemeIds) {
+            if (lexemeKeyCount == lexemeKeys.length) {
+                lexemeKeys = Arrays.copyOf(lexemeKeys, lexemeKeyCount * 2);
+            }
+            lexemeKeys[lexemeKeyCount++] = ((long) entry.groupId << 32) | ((lexemeId & 0xffffL) << 16) | index;
+        }
+    }
+
+    /**
+     * Writes the index from the pairs of the group ID and the lexeme ID to the
+     * indices of the synonyms. See {@link LexemeIndex} for the format.
+     */
+    void writeLexemeIndex(FileChannel output) throws IOException {
+        long[] keys = Arrays.copyOf(lexemeKeys, lexemeKeyCount);
+        Arrays.sort(keys);
+        int keyCount = 0;
+        int postingCount = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (i == 0 || keys[i] != keys[i - 1]) {
+                postingCount++;
+                if (i == 0 || (keys[i] >>> 16) != (keys[i - 1] >>> 16)) {
+                    keyCount++;
+                }
+            }
+        }
+        int capacity = 2;
+        while (capacity < 2 * keyCount) {
+            capacity *= 2;
+        }
+        long size = LexemeIndex.slotOffset(capacity) + 2L * keyCount + 2L * postingCount;
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("too many lexemes: " + keyCount);
+        }
+
+        logger.info("writing the index of the lexemes...");
+        ByteBuffer index = ByteBuffer.allocate((int) size);
+        index.order(ByteOrder.LITTLE_ENDIAN);
+        index.putInt(0, capacity);
+        int postings = LexemeIndex.slotOffset(capacity);
+        for (int i = 0; i < keys.length;) {
+            int groupId = (int) (keys[i] >>> 32);
+            int lexemeId = (short) (keys[i] >>> 16);
+            int slot = LexemeIndex.hash(groupId, lexemeId) & (capacity - 1);
+            while (index.getInt(LexemeIndex.slotOffset(slot) + 8) != 0) {
+                slot = (slot + 1) & (capacity - 1);
+            }
+            index.putInt(LexemeIndex.slotOffset(slot), groupId);
+            index.putInt(LexemeIndex.slotOffset(slot) + 4, lexemeId);
+            index.putInt(LexemeIndex.slotOffset(slot) + 8, postings);
+
+            int length = postings;
+            postings += 2;
+            for (int j = i; i < keys.length && (keys[i] >>> 16) == (keys[j] >>> 16); i++) {
+                if (i == j || keys[i] != keys[i - 1]) {
+                    index.putShort(postings, (short) keys[i]);
+                    postings += 2;
+                }
+            }
+            index.putShort(length, (short) ((postings - length - 2) / 2));
+        }
+
+        int start = beginSection(output);
+        output.write(index);
+        endSection(output, SectionDirectory.LEXEME_INDEX, start);
+        printSize(size);
+    }
+
+    /**
+     * Makes room for {@code length} bytes in {@code byteBuffer}, enlarging it if
+     * needed.
+     */
+    void reserve(int length) {
+        if (byteBuffer.remaining() >= length) {
+            return;
+        }
+        int capacity = Math.max(byteBuffer.capacity() * 2, byteBuffer.position() + length);
+        ByteBuffer newBuffer = ByteBuffer.allocate(capacity);
+        newBuffer.order(ByteOrder.LITTLE_ENDIAN);
+        buffer.flip();
+        newBuffer.put(byteBuffer);
+        byteBuffer = newBuffer;
+        buffer = newBuffer; // a kludge for Java 9
+    }
+
+    void sortSynonymGroups() {
+        synonymGroups.sort(Comparator.comparingInt(entries -> entries.get(0).groupId));
+        for (int i = 1; i < synonymGroups.size(); i++) {
+            int groupId = synonymGroups.get(i).get(0).groupId;
+            if (synonymGroups.get(i - 1).get(0).groupId == groupId) {
+                throw new IllegalArgumentException("group ID is duplicated: " + groupId);
+            }
+        }
     }
 
     boolean parseBoolean(String s, String falseString, String trueString) {
@@ -261,37 +665,24 @@ public class DictionaryBuilder {
         return v;
     }
 
-    void writeString(String text) {
-        writeStringLength((short) text.length());
-        for (int i = 0; i < text.length(); i++) {
-            byteBuffer.putChar(text.charAt(i));
-        }
-    }
-
     void writeShortArray(int[] array) {
+        reserve(1 + 2 * array.length);
         byteBuffer.put((byte) array.length);
         for (int i : array) {
             byteBuffer.putShort((short) i);
         }
     }
 
-    void writeStringLength(short length) {
-        if (length <= Byte.MAX_VALUE) {
-            byteBuffer.put((byte) length);
-        } else {
-            byteBuffer.put((byte) ((length >> 8) | 0x80));
-            byteBuffer.put((byte) (length & 0xFF));
-        }
-    }
-
     void printSize(long size) {
         logger.info(() -> String.format(" %,d bytes%n", size));
     }
 
     static void printUsage() {
         Console console = System.console();
-        console.printf("usage: DictionaryBuilder -o file [-d description] input\n");
+        console.printf("usage: DictionaryBuilder -o file [-d description] [-j threads] [-s] input\n");
         console.printf("\t-d description\tcomment\n");
+        console.printf("\t-j threads\tnumber of threads to parse the input\n");
+        console.printf("\t-s\tkeep the synonym groups in temporary files, not in memory (-j is ignored)\n");
     }
 
     static void readLoggerConfig() throws IOException {
@@ -306,12 +697,18 @@ public class DictionaryBuilder {
 
         String description = "";
         String outputPath = null;
+        int parallelism = 1;
+        boolean isStreaming = false;
         int i = 0;
         for (i = 0; i < args.length; i++) {
             if (args[i].equals("-o") && i + 1 < args.length) {
                 outputPath = args[++i];
             } else if (args[i].equals("-d") && i + 1 < args.length) {
                 description = args[++i];
+            } else if (args[i].equals("-j") && i + 1 < args.length) {
+                parallelism = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("-s")) {
+                isStreaming = true;
             } else if (args[i].equals("-h")) {
                 printUsage();
                 return;
@@ -325,12 +722,13 @@ public class DictionaryBuilder {
         }
         String inputPath = args[i];
 
-        DictionaryHeader header = new DictionaryHeader(DictionaryVersion.SYSTEM_DICT_VERSION_1,
+        DictionaryHeader header = new DictionaryHeader(DictionaryVersion.SYSTEM_DICT_VERSION_2,
                 Instant.now().getEpochSecond(), description);
         try (FileOutputStream output = new FileOutputStream(outputPath)) {
             output.write(header.toByte());
 
-            DictionaryBuilder builder = new DictionaryBuilder();
+            DictionaryBuilder builder = isStreaming ? new StreamingDictionaryBuilder() : new DictionaryBuilder();
+            builder.parallelism = parallelism;
             builder.build(inputPath, output);
         }
     }
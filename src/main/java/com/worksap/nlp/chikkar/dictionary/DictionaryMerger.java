@@ -0,0 +1,264 @@
+/*
+ * Copyright (c) 2020 Works Applications Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.nlp.chikkar.dictionary;
+
+import java.io.Console;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * A tool to merge synonym dictionaries into one.
+ *
+ * <p>
+ * The dictionaries are added in the same order as
+ * {@link com.worksap.nlp.chikkar.Chikkar#addDictionary}, and the dictionary
+ * added later takes precedence. With the merged dictionary,
+ * {@link com.worksap.nlp.chikkar.Chikkar#find} returns the same synonyms as
+ * with the separate dictionaries, but searches the trie only once.
+ *
+ * <p>
+ * The synonym group IDs of the first dictionary searched by the group IDs are
+ * kept, and the groups of the other dictionaries are numbered after them.
+ * The group IDs given to {@link com.worksap.nlp.chikkar.Chikkar#find} are
+ * searched only among the kept ones.
+ */
+public class DictionaryMerger {
+
+    static class Layer {
+        final Dictionary dictionary;
+        final boolean enableTrie;
+        final Map<Integer, Integer> groupIds = new HashMap<>();
+
+        Layer(Dictionary dictionary, boolean enableTrie) {
+            this.dictionary = dictionary;
+            this.enableTrie = enableTrie;
+        }
+    }
+
+    protected Logger logger;
+
+    /** the layers in the order of the precedence */
+    List<Layer> layers = new ArrayList<>();
+
+    DictionaryMerger() {
+        logger = Logger.getLogger(this.getClass().getName());
+    }
+
+    /**
+     * Adds a dictionary, which takes precedence over the dictionaries added
+     * before.
+     */
+    void add(Dictionary dictionary, boolean enableTrie) {
+        if (dictionary.isMerged()) {
+            throw new IllegalArgumentException("a merged dictionary cannot be merged again");
+        }
+        if (layers.size() >= PostingInfo.MAX_LAYERS) {
+            throw new IllegalArgumentException("too many dictionaries");
+        }
+        layers.add(0, new Layer(dictionary, enableTrie));
+    }
+
+    void merge(FileOutputStream output) throws IOException {
+        DictionaryBuilder builder = new DictionaryBuilder();
+        builder.layerEnableTries = new boolean[layers.size()];
+        for (int i = 0; i < layers.size(); i++) {
+            builder.layerEnableTries[i] = layers.get(i).enableTrie;
+        }
+
+        logger.info("merging the synonym groups...");
+        builder.keptGroupIdLimit = assignGroupIds();
+        SynonymCursor cursor = new SynonymCursor();
+        Map<String, int[]> winners = new HashMap<>();
+        for (int l = 0; l < layers.size(); l++) {
+            Layer layer = layers.get(l);
+            SynonymGroupList groupList = layer.dictionary.getGroupList();
+            for (int i = 0; i < groupList.size(); i++) {
+                int groupId = groupList.groupIdAt(i);
+                if (!layer.dictionary.getSynonyms(groupId, cursor) || cursor.size() == 0) {
+                    continue;
+                }
+                List<DictionaryBuilder.SynonymEntry> entries = new ArrayList<>(cursor.size());
+                while (cursor.next()) {
+                    entries.add(toEntry(cursor, layer.groupIds.get(groupId)));
+                    int[] winner = winners.computeIfAbsent(cursor.headword().toString(), k -> new int[] { -1, -1 });
+                    if (winner[0] < 0) {
+                        winner[0] = l;
+                    }
+                    if (winner[1] < 0 && layer.enableTrie) {
+                        winner[1] = l;
+                    }
+                }
+                builder.synonymGroups.add(entries);
+            }
+        }
+        logger.info(() -> String.format(" %,d groups%n", builder.synonymGroups.size()));
+
+        logger.info("merging the headwords...");
+        for (Map.Entry<String, int[]> entry : winners.entrySet()) {
+            int[] winner = entry.getValue();
+            addPostings(builder, entry.getKey(), winner[0], cursor);
+            if (winner[1] >= 0 && winner[1] != winner[0]) {
+                addPostings(builder, entry.getKey(), winner[1], cursor);
+            }
+        }
+        logger.info(() -> String.format(" %,d headwords%n", winners.size()));
+
+        FileChannel outputChannel = output.getChannel();
+        builder.writeSections(outputChannel);
+        outputChannel.close();
+    }
+
+    /**
+     * Keeps the group IDs of the first layer searched by the group IDs, or of the
+     * last layer if there is no such layer, and numbers the other groups after
+     * them.
+     *
+     * @return the next group ID after the kept ones
+     */
+    int assignGroupIds() {
+        int kept = layers.size() - 1;
+        for (int i = 0; i < layers.size(); i++) {
+            if (!layers.get(i).enableTrie) {
+                kept = i;
+                break;
+            }
+        }
+
+        int next = 0;
+        SynonymGroupList keptList = layers.get(kept).dictionary.getGroupList();
+        for (int i = 0; i < keptList.size(); i++) {
+            int groupId = keptList.groupIdAt(i);
+            layers.get(kept).groupIds.put(groupId, groupId);
+            next = Math.max(next, groupId + 1);
+        }
+        int limit = next;
+        for (int l = 0; l < layers.size(); l++) {
+            if (l == kept) {
+                continue;
+            }
+            SynonymGroupList groupList = layers.get(l).dictionary.getGroupList();
+            for (int i = 0; i < groupList.size(); i++) {
+                layers.get(l).groupIds.put(groupList.groupIdAt(i), next++);
+            }
+        }
+        return limit;
+    }
+
+    static DictionaryBuilder.SynonymEntry toEntry(SynonymCursor cursor, int groupId) {
+        DictionaryBuilder.SynonymEntry entry = new DictionaryBuilder.SynonymEntry();
+        entry.headword = cursor.headword().toString();
+        entry.groupId = groupId;
+        entry.lexemeIds = new int[cursor.lexemeIdCount()];
+        for (int i = 0; i < entry.lexemeIds.length; i++) {
+            entry.lexemeIds[i] = cursor.lexemeIdAt(i);
+        }
+        entry.flags = new Flags(cursor.flags());
+        entry.category = cursor.category().toString();
+        return entry;
+    }
+
+    /**
+     * Adds the postings of the headword in the layer, in the order of the
+     * original dictionary.
+     */
+    void addPostings(DictionaryBuilder builder, String headword, int l, SynonymCursor cursor) {
+        Layer layer = layers.get(l);
+        List<int[]> postings = new ArrayList<>();
+        layer.dictionary.trie.lookupPostings(headword,
+                (groupId, memberIndex, hasAmbiguity) -> postings.add(new int[] { groupId, memberIndex }));
+
+        List<int[]> merged = builder.trieKeys.computeIfAbsent(headword.getBytes(StandardCharsets.UTF_8),
+                k -> new ArrayList<>());
+        for (int[] posting : postings) {
+            int groupId = posting[0];
+            layer.dictionary.getSynonyms(groupId, cursor);
+            if (posting[1] < 0) {
+                cursor.seek(headword);
+            } else {
+                cursor.rewind();
+                while (cursor.index() < posting[1] && cursor.next()) {
+                    // move to the member
+                }
+            }
+            merged.add(new int[] { layer.groupIds.get(groupId),
+                    PostingInfo.encode(cursor.index(), cursor.hasAmbiguity(), l) });
+        }
+    }
+
+    static void printUsage() {
+        Console console = System.console();
+        console.printf("usage: DictionaryMerger -o file [-d description] [-g] dict [[-g] dict ...]\n");
+        console.printf("\t-d description\tcomment\n");
+        console.printf("\t-g\tsearch the next dictionary by the synonym group IDs\n");
+        console.printf("The dictionary given later takes precedence.\n");
+    }
+
+    public static void main(String[] args) throws IOException {
+        DictionaryBuilder.readLoggerConfig();
+
+        String description = "";
+        String outputPath = null;
+        int i = 0;
+        for (i = 0; i < args.length; i++) {
+            if (args[i].equals("-o") && i + 1 < args.length) {
+                outputPath = args[++i];
+            } else if (args[i].equals("-d") && i + 1 < args.length) {
+                description = args[++i];
+            } else if (args[i].equals("-h")) {
+                printUsage();
+                return;
+            } else {
+                break;
+            }
+        }
+        if (args.length <= i || outputPath == null) {
+            printUsage();
+            return;
+        }
+
+        DictionaryMerger merger = new DictionaryMerger();
+        try {
+            for (; i < args.length; i++) {
+                boolean enableTrie = true;
+                if (args[i].equals("-g") && i + 1 < args.length) {
+                    enableTrie = false;
+                    i++;
+                }
+                merger.add(new Dictionary(args[i], enableTrie), enableTrie);
+            }
+
+            DictionaryHeader header = new DictionaryHeader(DictionaryVersion.SYSTEM_DICT_VERSION_2,
+                    Instant.now().getEpochSecond(), description);
+            try (FileOutputStream output = new FileOutputStream(outputPath)) {
+                output.write(header.toByte());
+                merger.merge(output);
+            }
+        } finally {
+            for (Layer layer : merger.layers) {
+                layer.dictionary.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2020 Works Applications Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.nlp.chikkar.dictionary;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A registry of the dictionaries shared in a process.
+ *
+ * <p>
+ * A dictionary is shared by the callers which read the same file with the same
+ * options. The file is identified by its real path and its attributes, so a
+ * file replaced at the same path is read as another dictionary. Each call of
+ * {@link #acquire} adds a reference to the dictionary, which the caller
+ * releases by {@link Dictionary#close}. The dictionary is unmapped and removed
+ * from the registry when all the references are released.
+ *
+ * <pre>{@code
+ * try (Dictionary dictionary = DictionaryRegistry.shared().acquire("system_syn.dic", false)) {
+ *     chikkar.addDictionary(dictionary);
+ * }
+ * }</pre>
+ *
+ * <p>
+ * This class is thread-safe.
+ */
+public class DictionaryRegistry {
+
+    private static final DictionaryRegistry SHARED = new DictionaryRegistry();
+
+    private final Map<Key, Dictionary> dictionaries = new HashMap<>();
+
+    /**
+     * Constructs a new registry, which is separate from the shared one.
+     */
+    public DictionaryRegistry() {
+    }
+
+    /**
+     * Returns the registry shared in the process.
+     *
+     * @return the shared registry
+     */
+    public static DictionaryRegistry shared() {
+        return SHARED;
+    }
+
+    /**
+     * Returns the dictionary read from the specified file, reading it if no
+     * caller holds it.
+     *
+     * @param fileName
+     *            path of synonym dictionary file
+     * @param enableTrie
+     *            true to enable trie, otherwise false
+     * @return the dictionary, which the caller must close
+     * @throws IOException
+     *             if reading the file is failed
+     * @see Dictionary#Dictionary(String, boolean)
+     */
+    public Dictionary acquire(String fileName, boolean enableTrie) throws IOException {
+        return acquire(fileName, enableTrie, 0, null);
+    }
+
+    /**
+     * Returns the dictionary read from the specified file with a cache of the
+     * synonym groups, reading it if no caller holds it.
+     *
+     * The cache is shared by the callers as well as the dictionary.
+     *
+     * @param fileName
+     *            path of synonym dictionary file
+     * @param enableTrie
+     *            true to enable trie, otherwise false
+     * @param cacheCapacity
+     *            the maximum number of the cached synonym groups
+     * @param policy
+     *            the policy to evict the cached synonym groups
+     * @return the dictionary, which the caller must close
+     * @throws IOException
+     *             if reading the file is failed
+     * @see Dictionary#Dictionary(String, boolean, int, BoundedCache.EvictionPolicy)
+     */
+    public Dictionary acquire(String fileName, boolean enableTrie, int cacheCapacity,
+            BoundedCache.EvictionPolicy policy) throws IOException {
+        Key key = Key.of(Paths.get(fileName), enableTrie, cacheCapacity, policy);
+        Dictionary dictionary = retain(key);
+        if (dictionary != null) {
+            return dictionary;
+        }
+
+        // the file is read out of the lock, so that the others are not blocked
+        Dictionary opened = (policy == null) ? new Dictionary(fileName, enableTrie)
+                : new Dictionary(fileName, enableTrie, cacheCapacity, policy);
+        synchronized (this) {
+            dictionary = retain(key);
+            if (dictionary == null) {
+                opened.setReleaseListener(() -> remove(key, opened));
+                dictionaries.put(key, opened);
+                return opened;
+            }
+        }
+        // another caller has read the same file meanwhile
+        try {
+            opened.close();
+        } catch (IOException e) {
+            dictionary.close();
+            throw e;
+        }
+        return dictionary;
+    }
+
+    /**
+     * Returns the registered dictionary with a reference added, or {@code null}
+     * if no caller holds it.
+     */
+    private synchronized Dictionary retain(Key key) {
+        Dictionary dictionary = dictionaries.get(key);
+        return (dictionary != null && dictionary.tryRetain()) ? dictionary : null;
+    }
+
+    private synchronized void remove(Key key, Dictionary dictionary) {
+        dictionaries.remove(key, dictionary);
+    }
+
+    /**
+     * Returns the number of the dictionaries held by the callers.
+     *
+     * @return the number of the dictionaries
+     */
+    public synchronized int size() {
+        return dictionaries.size();
+    }
+
+    private static class Key {
+        private final Path path;
+        private final Object fileKey;
+        private final long lastModifiedTime;
+        private final long size;
+        private final boolean enableTrie;
+        private final int cacheCapacity;
+        private final BoundedCache.EvictionPolicy policy;
+
+        private Key(Path path, BasicFileAttributes attributes, boolean enableTrie, int cacheCapacity,
+                BoundedCache.EvictionPolicy policy) {
+            this.path = path;
+            fileKey = attributes.fileKey();
+            lastModifiedTime = attributes.lastModifiedTime().toMillis();
+            size = attributes.size();
+            this.enableTrie = enableTrie;
+            this.cacheCapacity = cacheCapacity;
+            this.policy = policy;
+        }
+
+        static Key of(Path path, boolean enableTrie, int cacheCapacity, BoundedCache.EvictionPolicy policy)
+                throws IOException {
+            Path realPath = path.toRealPath();
+            return new Key(realPath, Files.readAttributes(realPath, BasicFileAttributes.class), enableTrie,
+                    cacheCapacity, policy);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(path, fileKey, lastModifiedTime, size, enableTrie, cacheCapacity, policy);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return path.equals(other.path) && Objects.equals(fileKey, other.fileKey)
+                    && lastModifiedTime == other.lastModifiedTime && size == other.size
+                    && enableTrie == other.enableTrie && cacheCapacity == other.cacheCapacity
+                    && policy == other.policy;
+        }
+    }
+}
@@ -27,7 +27,31 @@ public class DictionaryVersion {
     /** the first version of system dictionries */
     public static final long SYSTEM_DICT_VERSION_1 = 0xeb5b87cc8b3f406cL;
 
+    /**
+     * the second version of system dictionries, with the directory of the
+     * aligned sections.
+     *
+     * The group index is sorted by the group IDs, each group has the table of
+     * its members and the list of its nouns, the postings of the trie have the
+     * member indices and the ambiguity, and the strings are stored in UTF-8 in a
+     * shared table.
+     */
+    public static final long SYSTEM_DICT_VERSION_2 = 0xff9fd2a9cd5377b9L;
+
     public static boolean isDictionary(long version) {
-        return version == SYSTEM_DICT_VERSION_1;
+        return version == SYSTEM_DICT_VERSION_1 || version == SYSTEM_DICT_VERSION_2;
+    }
+
+    /**
+     * Returns {@code true} if the sections of the dictionary are located by the
+     * directory following the header, not by the sizes of the preceding ones.
+     * 
+     * @param version
+     *            the version of the dictionary
+     * @return {@code true} if the dictionary has the section directory,
+     *         otherwise {@code false}
+     */
+    public static boolean hasSectionDirectory(long version) {
+        return version == SYSTEM_DICT_VERSION_2;
     }
 }
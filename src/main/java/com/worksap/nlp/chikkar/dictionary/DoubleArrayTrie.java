@@ -20,22 +20,55 @@ import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.nio.IntBuffer;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.IntConsumer;
 
 import com.worksap.nlp.dartsclone.DoubleArray;
 
 public class DoubleArrayTrie {
 
     private DoubleArray trie;
+    private IntBuffer array;
     private IdTable groupIdTable;
     private int storageSize;
 
+    /**
+     * A consumer of the group IDs with the information of the headword.
+     */
+    @FunctionalInterface
+    public interface PostingConsumer {
+        /**
+         * Performs this operation on a group ID.
+         *
+         * @param groupId
+         *            the group ID
+         * @param memberIndex
+         *            the index of the headword in the group, or {@code -1} if the
+         *            dictionary does not store it
+         * @param hasAmbiguity
+         *            {@code true} if the headword is ambiguous in the group. If
+         *            the dictionary does not store it, always {@code false}
+         */
+        void accept(int groupId, int memberIndex, boolean hasAmbiguity);
+    }
+
+    /**
+     * Reads the trie at the specified offset of a dictionary of the first
+     * version.
+     * 
+     * @param bytes
+     *            the dictionary
+     * @param offset
+     *            the offset of the trie
+     */
     public DoubleArrayTrie(ByteBuffer bytes, int offset) {
         int position = offset;
         trie = new DoubleArray();
         int size = bytes.getInt(position);
         position += 4;
-        ((Buffer) bytes).position(position); // a kludge for Java 9
-        IntBuffer array = bytes.asIntBuffer();
+        ByteBuffer view = bytes.duplicate().order(bytes.order());
+        ((Buffer) view).position(position); // a kludge for Java 9
+        array = view.asIntBuffer();
         trie.setArray(array, size);
         position += trie.totalSize();
 
@@ -44,6 +77,22 @@ public class DoubleArrayTrie {
         storageSize = position - offset;
     }
 
+    /**
+     * Reads the trie from the sections of the double array and the ID table.
+     * 
+     * @param arraySection
+     *            the section of the double array
+     * @param idTableSection
+     *            the section of the ID table
+     */
+    DoubleArrayTrie(ByteBuffer arraySection, ByteBuffer idTableSection) {
+        trie = new DoubleArray();
+        array = arraySection.asIntBuffer();
+        trie.setArray(array, array.limit());
+        groupIdTable = new IdTable(idTableSection);
+        storageSize = arraySection.limit() + idTableSection.limit();
+    }
+
     /**
      * Returns the group IDs obtained by common prefix search.
      *
@@ -52,7 +101,7 @@ public class DoubleArrayTrie {
      *
      * <p>
      * The return value is consist of the group ID and the length of the matched
-     * part.
+     * part. Use {@link PrefixCursor} to avoid allocating the arrays.
      * 
      * @param text
      *            the key
@@ -61,42 +110,177 @@ public class DoubleArrayTrie {
      * @return the iterator of results
      */
     public Iterator<int[]> lookup(byte[] text, int offset) {
-        Iterator<int[]> iterator = trie.commonPrefixSearch(text, offset);
-        if (!iterator.hasNext()) {
-            return iterator;
-        }
-        return new Itr(iterator);
+        PrefixCursor cursor = new PrefixCursor();
+        cursor.reset(text, offset);
+        return new Itr(cursor);
     }
 
-    private class Itr implements Iterator<int[]> {
-        private final Iterator<int[]> iterator;
-        private int[] groupIds;
-        private int length;
-        private int index;
+    private static class Itr implements Iterator<int[]> {
+        private final PrefixCursor cursor;
+        private boolean hasNext;
 
-        Itr(Iterator<int[]> iterator) {
-            this.iterator = iterator;
-            index = -1;
+        Itr(PrefixCursor cursor) {
+            this.cursor = cursor;
+            hasNext = cursor.advance();
         }
 
         @Override
         public boolean hasNext() {
-            if (index < 0) {
-                return iterator.hasNext();
-            } else {
-                return (index < groupIds.length) || iterator.hasNext();
-            }
+            return hasNext;
         }
 
         @Override
         public int[] next() {
-            if (index < 0 || index >= groupIds.length) {
-                int[] p = iterator.next();
-                groupIds = groupIdTable.get(p[0]);
-                length = p[1];
-                index = 0;
+            if (!hasNext) {
+                throw new NoSuchElementException();
             }
-            return new int[] { groupIds[index++], length };
+            int[] result = new int[] { cursor.groupId(), cursor.matchLength() };
+            hasNext = cursor.advance();
+            return result;
+        }
+    }
+
+    /**
+     * Returns a new cursor for common prefix search.
+     *
+     * @return a new cursor which is not placed on any text
+     */
+    public PrefixCursor newPrefixCursor() {
+        return new PrefixCursor();
+    }
+
+    /**
+     * A reusable cursor over the results of common prefix search.
+     *
+     * <p>
+     * The cursor moves to each group ID of each key which is a prefix of the
+     * text, in the order of the lengths of the keys. The postings are read
+     * directly from the dictionary, so the cursor allocates no objects.
+     *
+     * <pre>{@code
+     * PrefixCursor cursor = trie.newPrefixCursor();
+     * for (int offset = 0; offset < text.length; offset++) {
+     *     cursor.reset(text, offset);
+     *     while (cursor.advance()) {
+     *         emit(offset, offset + cursor.matchLength(), cursor.groupId());
+     *     }
+     * }
+     * }</pre>
+     *
+     * <p>
+     * This class is not thread-safe.
+     */
+    public final class PrefixCursor {
+        private byte[] text;
+        private int offset;
+        private int position;
+        private int end;
+        private int nodePos;
+        private int index;
+        private int count;
+        private int posting;
+
+        private PrefixCursor() {
+            nodePos = -1;
+            index = -1;
+        }
+
+        /**
+         * Places this cursor before the first result for the text from
+         * {@code offset} to the end of {@code text}.
+         *
+         * @param text
+         *            the UTF-8 text
+         * @param offset
+         *            the offset to search from
+         */
+        public void reset(byte[] text, int offset) {
+            reset(text, offset, text.length);
+        }
+
+        /**
+         * Places this cursor before the first result for the text from
+         * {@code offset} to {@code end}.
+         *
+         * @param text
+         *            the UTF-8 text
+         * @param offset
+         *            the offset to search from
+         * @param end
+         *            the offset to search up to, exclusive
+         */
+        public void reset(byte[] text, int offset, int end) {
+            this.text = text;
+            this.offset = offset;
+            position = offset;
+            this.end = end;
+            nodePos = 0;
+            index = -1;
+        }
+
+        /**
+         * Moves this cursor to the next result.
+         *
+         * @return {@code true} if the cursor is on a result, or {@code false} if no
+         *         results remain
+         */
+        public boolean advance() {
+            if (index >= 0 && ++posting < count) {
+                return true;
+            }
+            index = -1;
+            while (nodePos >= 0 && position < end) {
+                nodePos = transitByte(nodePos, Byte.toUnsignedInt(text[position++]));
+                if (nodePos >= 0) {
+                    int i = postingsIndexAt(nodePos);
+                    if (i >= 0) {
+                        index = i;
+                        count = groupIdTable.count(i);
+                        posting = 0;
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Returns the group ID of the current result.
+         *
+         * @return the group ID
+         */
+        public int groupId() {
+            return groupIdTable.groupIdAt(index, posting);
+        }
+
+        /**
+         * Returns the length of the key of the current result in bytes.
+         *
+         * @return the length of the matched part
+         */
+        public int matchLength() {
+            return position - offset;
+        }
+
+        /**
+         * Returns the index of the key in the group of the current result.
+         *
+         * @return the index of the key, or {@code -1} if the dictionary does not
+         *         store it
+         */
+        public int memberIndex() {
+            return groupIdTable.hasInfo() ? PostingInfo.memberIndex(groupIdTable.infoAt(index, posting)) : -1;
+        }
+
+        /**
+         * Returns {@code true} if the key is ambiguous in the group of the
+         * current result.
+         *
+         * @return {@code true} if the key is ambiguous. If the dictionary does
+         *         not store it, always {@code false}
+         */
+        public boolean hasAmbiguity() {
+            return PostingInfo.hasAmbiguity(groupIdTable.infoAt(index, posting));
         }
     }
 
@@ -119,6 +303,142 @@ public class DoubleArrayTrie {
         }
     }
 
+    /**
+     * Passes the group IDs obtained by exact match search to the consumer.
+     *
+     * <p>
+     * The key is encoded into UTF-8 while traversing the trie, so this method
+     * allocates no objects.
+     * 
+     * @param text
+     *            the key
+     * @param consumer
+     *            the consumer of the group IDs
+     * @return the number of the group IDs
+     */
+    public int lookup(CharSequence text, IntConsumer consumer) {
+        int index = exactMatchSearch(text);
+        if (index < 0) {
+            return 0;
+        }
+        return groupIdTable.forEach(index, consumer);
+    }
+
+    /**
+     * Passes the group IDs obtained by exact match search to the consumer with
+     * the index and the ambiguity of the key in each group.
+     *
+     * <p>
+     * Like {@link #lookup(CharSequence, IntConsumer)}, this method allocates no
+     * objects.
+     * 
+     * @param text
+     *            the key
+     * @param consumer
+     *            the consumer of the group IDs
+     * @return the number of the group IDs
+     */
+    public int lookupPostings(CharSequence text, PostingConsumer consumer) {
+        int index = exactMatchSearch(text);
+        if (index < 0) {
+            return 0;
+        }
+        return groupIdTable.forEach(index, consumer);
+    }
+
+    /**
+     * Returns the index of the postings of the key in the ID table, or {@code -1}
+     * if the key is not found.
+     */
+    int postingsIndex(CharSequence text) {
+        return exactMatchSearch(text);
+    }
+
+    IdTable getIdTable() {
+        return groupIdTable;
+    }
+
+    private int exactMatchSearch(CharSequence text) {
+        int nodePos = 0;
+        int length = text.length();
+        for (int i = 0; i < length && nodePos >= 0; i++) {
+            int c = text.charAt(i);
+            if (Character.isSurrogate((char) c)) {
+                if (Character.isHighSurrogate((char) c) && i + 1 < length
+                        && Character.isLowSurrogate(text.charAt(i + 1))) {
+                    c = Character.toCodePoint((char) c, text.charAt(++i));
+                } else {
+                    c = '?'; // same as String#getBytes
+                }
+            }
+            nodePos = transit(nodePos, c);
+        }
+        if (nodePos < 0) {
+            return -1;
+        }
+        return postingsIndexAt(nodePos);
+    }
+
+    /**
+     * Returns the index of the postings of the key which ends at the node, or
+     * {@code -1} if no key ends there.
+     */
+    int postingsIndexAt(int nodePos) {
+        int unit = array.get(nodePos);
+        if (!hasLeaf(unit)) {
+            return -1;
+        }
+        return value(array.get(nodePos ^ offset(unit)));
+    }
+
+    /**
+     * Returns the node reached from {@code nodePos} by the UTF-8 bytes of the
+     * code point, or {@code -1} if there is no such node.
+     */
+    int transit(int nodePos, int codePoint) {
+        if (codePoint < 0x80) {
+            return transitByte(nodePos, codePoint);
+        } else if (codePoint < 0x800) {
+            nodePos = transitByte(nodePos, 0xc0 | (codePoint >> 6));
+        } else if (codePoint < 0x10000) {
+            nodePos = transitByte(nodePos, 0xe0 | (codePoint >> 12));
+            nodePos = transitByte(nodePos, 0x80 | ((codePoint >> 6) & 0x3f));
+        } else {
+            nodePos = transitByte(nodePos, 0xf0 | (codePoint >> 18));
+            nodePos = transitByte(nodePos, 0x80 | ((codePoint >> 12) & 0x3f));
+            nodePos = transitByte(nodePos, 0x80 | ((codePoint >> 6) & 0x3f));
+        }
+        return transitByte(nodePos, 0x80 | (codePoint & 0x3f));
+    }
+
+    /**
+     * Returns the node reached from {@code nodePos} by the byte, or {@code -1} if
+     * there is no such node. The root is at {@code 0}.
+     */
+    int transitByte(int nodePos, int label) {
+        if (nodePos < 0) {
+            return -1;
+        }
+        nodePos ^= offset(array.get(nodePos)) ^ label;
+        return (label(array.get(nodePos)) == label) ? nodePos : -1;
+    }
+
+    private static boolean hasLeaf(int unit) {
+        return ((unit >>> 8) & 1) == 1;
+    }
+
+    private static int value(int unit) {
+        return unit & ((1 << 31) - 1);
+    }
+
+    private static int label(int unit) {
+        return unit & ((1 << 31) | 0xff);
+    }
+
+    private static int offset(int unit) {
+        return (unit >>> 10) << ((unit & (1 << 9)) >>> 6);
+    }
+
     public int storageSize() {
         return storageSize;
     }
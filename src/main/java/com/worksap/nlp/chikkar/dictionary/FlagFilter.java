@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2020 Works Applications Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.nlp.chikkar.dictionary;
+
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+/**
+ * A predicate on the flags of synonyms, which is evaluated on the encoded flags
+ * without decoding the synonyms.
+ *
+ * <p>
+ * A filter is compiled into a table of the results for all the encoded flags.
+ * Filters are combined with {@link #and}.
+ *
+ * <pre>{@code
+ * FlagFilter filter = FlagFilter.NOUNS.and(FlagFilter.acronymTypes(0)).and(FlagFilter.variantTypes(0, 1));
+ * }</pre>
+ */
+public final class FlagFilter {
+
+    /** the number of the bits of the encoded flags */
+    private static final int FLAG_BITS = 9;
+    private static final int FLAG_MASK = (1 << FLAG_BITS) - 1;
+
+    /** the filter which accepts all the synonyms */
+    public static final FlagFilter ALL = of(flags -> true);
+
+    /** the filter which accepts only nouns */
+    public static final FlagFilter NOUNS = of(Flags::isNoun);
+
+    private final long[] table;
+    private final boolean isNounOnly;
+    private final boolean needsFlags;
+
+    private FlagFilter(long[] table) {
+        this.table = table;
+        boolean acceptsNonNouns = false;
+        boolean rejectsNouns = false;
+        boolean rejectsNonNouns = false;
+        for (int flags = 0; flags <= FLAG_MASK; flags++) {
+            boolean accepted = test((short) flags);
+            if (Flags.isNoun((short) flags)) {
+                rejectsNouns |= !accepted;
+            } else {
+                acceptsNonNouns |= accepted;
+                rejectsNonNouns |= !accepted;
+            }
+        }
+        isNounOnly = !acceptsNonNouns;
+        needsFlags = rejectsNouns || (acceptsNonNouns && rejectsNonNouns);
+    }
+
+    /**
+     * Compiles the predicate on the flags into a filter.
+     *
+     * @param predicate
+     *            the predicate on the flags
+     * @return the filter which accepts the synonyms satisfying the predicate
+     */
+    public static FlagFilter of(Predicate<? super Flags> predicate) {
+        long[] table = new long[(FLAG_MASK + 1) / Long.SIZE];
+        for (int flags = 0; flags <= FLAG_MASK; flags++) {
+            if (predicate.test(new Flags((short) flags))) {
+                table[flags >>> 6] |= 1L << flags;
+            }
+        }
+        return new FlagFilter(table);
+    }
+
+    /**
+     * Returns a filter which accepts the synonyms of the specified form types.
+     *
+     * @param types
+     *            the form types to accept
+     * @return the filter
+     */
+    public static FlagFilter formTypes(int... types) {
+        return of(flags -> contains(types, flags.formType()));
+    }
+
+    /**
+     * Returns a filter which accepts the synonyms of the specified acronym types.
+     *
+     * @param types
+     *            the acronym types to accept
+     * @return the filter
+     */
+    public static FlagFilter acronymTypes(int... types) {
+        return of(flags -> contains(types, flags.acronymType()));
+    }
+
+    /**
+     * Returns a filter which accepts the synonyms of the specified variant types.
+     *
+     * @param types
+     *            the variant types to accept
+     * @return the filter
+     */
+    public static FlagFilter variantTypes(int... types) {
+        return of(flags -> contains(types, flags.variantType()));
+    }
+
+    private static boolean contains(int[] values, int value) {
+        for (int v : values) {
+            if (v == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns a filter which accepts the synonyms accepted by both this filter
+     * and the other.
+     *
+     * @param other
+     *            the other filter
+     * @return the combined filter
+     */
+    public FlagFilter and(FlagFilter other) {
+        long[] combined = new long[table.length];
+        for (int i = 0; i < table.length; i++) {
+            combined[i] = table[i] & other.table[i];
+        }
+        return new FlagFilter(combined);
+    }
+
+    /**
+     * Returns {@code true} if the synonym with the flags is accepted.
+     *
+     * @param flags
+     *            the flags of the synonym
+     * @return {@code true} if the synonym is accepted, otherwise {@code false}
+     */
+    public boolean test(Flags flags) {
+        return test(flags.encode());
+    }
+
+    boolean test(short flags) {
+        int i = flags & FLAG_MASK;
+        return (table[i >>> 6] & (1L << i)) != 0;
+    }
+
+    /**
+     * Returns {@code true} if this filter accepts only nouns, so that the
+     * synonyms can be read from the list of the nouns in a group.
+     */
+    boolean isNounOnly() {
+        return isNounOnly;
+    }
+
+    /**
+     * Returns {@code false} if the synonyms read by {@link #isNounOnly} are all
+     * accepted, so that their flags need not be tested.
+     */
+    boolean needsFlags() {
+        return needsFlags;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof FlagFilter && Arrays.equals(table, ((FlagFilter) obj).table);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(table);
+    }
+}
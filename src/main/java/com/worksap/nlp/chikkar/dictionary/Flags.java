@@ -32,11 +32,31 @@ public class Flags {
     }
 
     Flags(short flags) {
-        this.hasAmbiguity = ((flags & 0x0001) == 1);
-        this.isNoun = ((flags & 0x0002) == 2);
-        this.formType = (flags >> 2) & 0x0007;
-        this.acronymType = (flags >> 5) & 0x0003;
-        this.variantType = (flags >> 7) & 0x0003;
+        this.hasAmbiguity = hasAmbiguity(flags);
+        this.isNoun = isNoun(flags);
+        this.formType = formType(flags);
+        this.acronymType = acronymType(flags);
+        this.variantType = variantType(flags);
+    }
+
+    static boolean hasAmbiguity(short flags) {
+        return (flags & 0x0001) == 1;
+    }
+
+    static boolean isNoun(short flags) {
+        return (flags & 0x0002) == 2;
+    }
+
+    static int formType(short flags) {
+        return (flags >> 2) & 0x0007;
+    }
+
+    static int acronymType(short flags) {
+        return (flags >> 5) & 0x0003;
+    }
+
+    static int variantType(short flags) {
+        return (flags >> 7) & 0x0003;
     }
 
     public boolean hasAmbiguity() {
@@ -0,0 +1,226 @@
+/*
+ * Copyright (c) 2020 Works Applications Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.nlp.chikkar.dictionary;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import com.worksap.nlp.chikkar.Synonym;
+import com.worksap.nlp.chikkar.SynonymGroup;
+
+/**
+ * The synonym groups decoded into arrays on the heap.
+ *
+ * <p>
+ * The members of all the groups are numbered in the order of the group IDs.
+ * The members of the group at {@code i} are from {@code groupOffsets[i]} to
+ * {@code groupOffsets[i + 1]}, and the headword of the member at {@code j} is
+ * from {@code headwordOffsets[j]} to {@code headwordOffsets[j + 1]} in
+ * {@code headwords}. The lexeme IDs are arranged in the same way. The
+ * categories, which are few, are shared as strings.
+ */
+class GroupColumns {
+
+    private final int[] groupIds;
+    private final int[] groupOffsets;
+    private final short[] flags;
+    private final char[] headwords;
+    private final int[] headwordOffsets;
+    private final short[] lexemeIds;
+    private final int[] lexemeIdOffsets;
+    private final String[] categories;
+    private final int[] categoryIndices;
+
+    /**
+     * Decodes all the groups in the list.
+     *
+     * @throws IllegalStateException
+     *             if the headwords do not fit in an array
+     */
+    GroupColumns(SynonymGroupList groupList) {
+        int size = groupList.size();
+        groupIds = new int[size];
+        groupOffsets = new int[size + 1];
+        SynonymCursor cursor = new SynonymCursor();
+        int memberCount = 0;
+        long charCount = 0;
+        int lexemeIdCount = 0;
+        for (int i = 0; i < size; i++) {
+            groupIds[i] = groupList.groupIdAt(i);
+            groupOffsets[i] = memberCount;
+            groupList.getSynonyms(groupIds[i], cursor);
+            memberCount += cursor.size();
+            while (cursor.next()) {
+                charCount += cursor.headword().length();
+                lexemeIdCount += cursor.lexemeIdCount();
+            }
+        }
+        groupOffsets[size] = memberCount;
+        if (charCount > Integer.MAX_VALUE) {
+            throw new IllegalStateException("too many characters: " + charCount);
+        }
+
+        flags = new short[memberCount];
+        headwords = new char[(int) charCount];
+        headwordOffsets = new int[memberCount + 1];
+        lexemeIds = new short[lexemeIdCount];
+        lexemeIdOffsets = new int[memberCount + 1];
+        categoryIndices = new int[memberCount];
+        Map<String, Integer> categoryMap = new HashMap<>();
+        List<String> categoryList = new ArrayList<>();
+        StringBuilder builder = new StringBuilder();
+        int member = 0;
+        int chars = 0;
+        int lexemes = 0;
+        for (int i = 0; i < size; i++) {
+            groupList.getSynonyms(groupIds[i], cursor);
+            while (cursor.next()) {
+                flags[member] = cursor.flags();
+                headwordOffsets[member] = chars;
+                builder.setLength(0);
+                cursor.headword().appendTo(builder);
+                builder.getChars(0, builder.length(), headwords, chars);
+                chars += builder.length();
+                lexemeIdOffsets[member] = lexemes;
+                for (int k = 0; k < cursor.lexemeIdCount(); k++) {
+                    lexemeIds[lexemes++] = (short) cursor.lexemeIdAt(k);
+                }
+                categoryIndices[member] = categoryMap.computeIfAbsent(cursor.category().toString(), c -> {
+                    categoryList.add(c);
+                    return categoryList.size() - 1;
+                });
+                member++;
+            }
+        }
+        headwordOffsets[memberCount] = chars;
+        lexemeIdOffsets[memberCount] = lexemes;
+        categories = categoryList.toArray(new String[0]);
+    }
+
+    /**
+     * Returns the index of the group with the specified ID, or {@code -1} if the
+     * group is not found.
+     */
+    int indexOf(int groupId) {
+        int i = Arrays.binarySearch(groupIds, groupId);
+        return (i >= 0) ? i : -1;
+    }
+
+    /**
+     * Returns the number of the members of the group at the specified index.
+     */
+    int groupSize(int group) {
+        return groupOffsets[group + 1] - groupOffsets[group];
+    }
+
+    /**
+     * Returns the index in the group of the first member with the specified
+     * headword, or {@code -1} if the group has no such member.
+     */
+    int memberIndexOf(int group, CharSequence word) {
+        int begin = groupOffsets[group];
+        int end = groupOffsets[group + 1];
+        for (int member = begin; member < end; member++) {
+            if (headwordEquals(member, word)) {
+                return member - begin;
+            }
+        }
+        return -1;
+    }
+
+    boolean hasAmbiguity(int group, int memberIndex) {
+        return Flags.hasAmbiguity(flags[groupOffsets[group] + memberIndex]);
+    }
+
+    private boolean headwordEquals(int member, CharSequence word) {
+        int start = headwordOffsets[member];
+        int length = headwordOffsets[member + 1] - start;
+        if (word.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (headwords[start + i] != word.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Passes the headwords of the members of the group accepted by the filter,
+     * except {@code excluded}, to the consumer through the view.
+     */
+    int acceptHeadwords(int group, CharSequence excluded, FlagFilter filter, BufferCharSequence view,
+            Consumer<? super CharSequence> consumer) {
+        int count = 0;
+        int end = groupOffsets[group + 1];
+        for (int member = groupOffsets[group]; member < end; member++) {
+            if (filter.test(flags[member]) && !headwordEquals(member, excluded)) {
+                int start = headwordOffsets[member];
+                view.resetChars(headwords, start, headwordOffsets[member + 1] - start);
+                consumer.accept(view);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    Optional<SynonymGroup> getSynonymGroup(int groupId, FlagFilter filter) {
+        int group = indexOf(groupId);
+        if (group < 0) {
+            return Optional.empty();
+        }
+        int end = groupOffsets[group + 1];
+        List<Synonym> synonyms = new ArrayList<>(end - groupOffsets[group]);
+        for (int member = groupOffsets[group]; member < end; member++) {
+            if (filter.test(flags[member])) {
+                synonyms.add(toSynonym(member));
+            }
+        }
+        return Optional.of(new SynonymGroup(groupId, Collections.unmodifiableList(synonyms)));
+    }
+
+    private Synonym toSynonym(int member) {
+        int start = headwordOffsets[member];
+        String headword = new String(headwords, start, headwordOffsets[member + 1] - start);
+        int[] ids = new int[lexemeIdOffsets[member + 1] - lexemeIdOffsets[member]];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = lexemeIds[lexemeIdOffsets[member] + i];
+        }
+        return new Synonym(headword, ids, new Flags(flags[member]), categories[categoryIndices[member]]);
+    }
+
+    /**
+     * Returns the number of the bytes of the arrays, without the headers of the
+     * objects.
+     */
+    long heapSize() {
+        long size = 4L * (groupIds.length + groupOffsets.length + headwordOffsets.length + lexemeIdOffsets.length
+                + categoryIndices.length);
+        size += 2L * (flags.length + headwords.length + lexemeIds.length);
+        for (String category : categories) {
+            size += 2L * category.length();
+        }
+        return size;
+    }
+}
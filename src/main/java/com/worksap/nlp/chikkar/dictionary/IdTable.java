@@ -17,30 +17,107 @@
 package com.worksap.nlp.chikkar.dictionary;
 
 import java.nio.ByteBuffer;
+import java.util.function.IntConsumer;
 
 class IdTable {
 
     private final ByteBuffer bytes;
     private final int size;
     private final int offset;
+    private final int entrySize;
 
+    /**
+     * Reads the table at the specified offset of a dictionary of the first
+     * version, which has only the group IDs.
+     */
     IdTable(ByteBuffer bytes, int offset) {
+        this(bytes, offset + 4, bytes.getInt(offset), false);
+    }
+
+    /**
+     * Reads the table from the section of the dictionary, where each group ID
+     * is followed by the information of the posting.
+     */
+    IdTable(ByteBuffer section) {
+        this(section, 0, section.limit(), true);
+    }
+
+    private IdTable(ByteBuffer bytes, int offset, int size, boolean hasInfo) {
         this.bytes = bytes;
-        size = bytes.getInt(offset);
-        this.offset = offset + 4;
+        this.size = size;
+        this.offset = offset;
+        entrySize = hasInfo ? 8 : 4;
     }
 
     int storageSize() {
         return 4 + size;
     }
 
+    boolean hasInfo() {
+        return entrySize == 8;
+    }
+
     int[] get(int index) {
         int length = Byte.toUnsignedInt(bytes.get(offset + index++));
         int[] result = new int[length];
         for (int i = 0; i < length; i++) {
             result[i] = bytes.getInt(offset + index);
-            index += 4;
+            index += entrySize;
         }
         return result;
     }
+
+    int forEach(int index, IntConsumer consumer) {
+        int length = Byte.toUnsignedInt(bytes.get(offset + index++));
+        for (int i = 0; i < length; i++) {
+            consumer.accept(bytes.getInt(offset + index));
+            index += entrySize;
+        }
+        return length;
+    }
+
+    int forEach(int index, DoubleArrayTrie.PostingConsumer consumer) {
+        int length = Byte.toUnsignedInt(bytes.get(offset + index++));
+        for (int i = 0; i < length; i++) {
+            int groupId = bytes.getInt(offset + index);
+            if (entrySize == 8) {
+                int info = bytes.getInt(offset + index + 4);
+                consumer.accept(groupId, PostingInfo.memberIndex(info), PostingInfo.hasAmbiguity(info));
+            } else {
+                consumer.accept(groupId, -1, false);
+            }
+            index += entrySize;
+        }
+        return length;
+    }
+
+    int count(int index) {
+        return Byte.toUnsignedInt(bytes.get(offset + index));
+    }
+
+    int groupIdAt(int index, int i) {
+        return bytes.getInt(offset + index + 1 + entrySize * i);
+    }
+
+    int infoAt(int index, int i) {
+        return (entrySize == 8) ? bytes.getInt(offset + index + 1 + entrySize * i + 4) : 0;
+    }
+
+    /**
+     * Passes the postings of the layer to the consumer.
+     */
+    int forEach(int index, int layer, DoubleArrayTrie.PostingConsumer consumer) {
+        int length = count(index++);
+        int count = 0;
+        for (int i = 0; i < length; i++) {
+            int info = bytes.getInt(offset + index + 4);
+            if (PostingInfo.layer(info) == layer) {
+                consumer.accept(bytes.getInt(offset + index), PostingInfo.memberIndex(info),
+                        PostingInfo.hasAmbiguity(info));
+                count++;
+            }
+            index += entrySize;
+        }
+        return count;
+    }
 }
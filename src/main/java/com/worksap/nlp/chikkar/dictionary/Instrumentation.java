@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2020 Works Applications Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.nlp.chikkar.dictionary;
+
+/**
+ * A receiver of the events of {@link com.worksap.nlp.chikkar.Chikkar} and
+ * {@link Dictionary} for metrics.
+ *
+ * <p>
+ * All the methods do nothing by default, so an implementation overrides only
+ * the events it records. The methods are called in the searching threads, and
+ * must be thread-safe and return quickly.
+ *
+ * <p>
+ * The default instance is the first implementation found by
+ * {@link java.util.ServiceLoader}, or {@link #NOOP} if there is none. It is
+ * used by the instances created after it is loaded, and can be replaced for
+ * each instance.
+ */
+public interface Instrumentation {
+
+    /**
+     * The instrumentation which records nothing. The time of the events is not
+     * measured with it.
+     */
+    Instrumentation NOOP = new Instrumentation() {
+        @Override
+        public boolean isEnabled() {
+            return false;
+        }
+    };
+
+    /**
+     * Caches whose accesses are reported.
+     */
+    enum Cache {
+        /** the cache of the results of {@code Chikkar#find} */
+        RESULT,
+        /** the cache of the synonym groups of a dictionary */
+        GROUP,
+    }
+
+    /**
+     * Reasons why synonyms are not returned.
+     */
+    enum Filter {
+        /** the headword is ambiguous in the group */
+        AMBIGUITY,
+        /** the synonym is not a noun and verbs are not enabled */
+        POS,
+        /** the synonym is not accepted by the {@link FlagFilter} of the caller */
+        FLAGS,
+    }
+
+    /**
+     * Returns the default instrumentation of the process.
+     *
+     * @return the default instrumentation
+     */
+    static Instrumentation getDefault() {
+        return DefaultInstrumentation.INSTANCE;
+    }
+
+    /**
+     * Returns {@code true} if the events are recorded. If {@code false}, the
+     * callers skip measuring the time.
+     *
+     * @return {@code true} if the events are recorded, otherwise {@code false}
+     */
+    default boolean isEnabled() {
+        return true;
+    }
+
+    /**
+     * Called when a search for synonyms is finished.
+     *
+     * @param nanos
+     *            the time of the search in nanoseconds
+     */
+    default void found(long nanos) {
+    }
+
+    /**
+     * Called when a headword or synonym group IDs are searched for in a
+     * dictionary.
+     *
+     * @param layer
+     *            the index of the dictionary in the order of the precedence
+     * @param isHit
+     *            {@code true} if any synonym groups are found
+     */
+    default void lookedUp(int layer, boolean isHit) {
+    }
+
+    /**
+     * Called when a synonym group is read from a dictionary.
+     */
+    default void groupDecoded() {
+    }
+
+    /**
+     * Called when synonyms are dropped.
+     *
+     * @param filter
+     *            the reason of the drop
+     * @param count
+     *            the number of the dropped synonyms or groups
+     */
+    default void filtered(Filter filter, int count) {
+    }
+
+    /**
+     * Called when a cache is accessed.
+     *
+     * @param cache
+     *            the cache
+     * @param isHit
+     *            {@code true} if a cached value is found
+     */
+    default void cacheAccessed(Cache cache, boolean isHit) {
+    }
+
+    /**
+     * Called when a dictionary is read.
+     *
+     * @param fileName
+     *            the file of the dictionary
+     * @param nanos
+     *            the time to read the dictionary in nanoseconds
+     */
+    default void dictionaryLoaded(String fileName, long nanos) {
+    }
+
+    /**
+     * Called when a dictionary is unmapped.
+     *
+     * @param fileName
+     *            the file of the dictionary
+     * @param nanos
+     *            the time to unmap the dictionary in nanoseconds
+     */
+    default void dictionaryUnloaded(String fileName, long nanos) {
+    }
+
+    /**
+     * Called when a dictionary is brought into memory by a {@link LoadPolicy}.
+     *
+     * @param fileName
+     *            the file of the dictionary
+     * @param nanos
+     *            the time to warm up the dictionary in nanoseconds
+     */
+    default void dictionaryWarmedUp(String fileName, long nanos) {
+    }
+}
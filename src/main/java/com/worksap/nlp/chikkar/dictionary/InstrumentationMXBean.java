@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2020 Works Applications Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.nlp.chikkar.dictionary;
+
+/**
+ * The management interface of {@link JmxInstrumentation}.
+ *
+ * <p>
+ * The latencies are in nanoseconds. A percentile is the upper bound of its
+ * bucket in a histogram of the powers of two.
+ */
+public interface InstrumentationMXBean {
+
+    /**
+     * Returns the number of the searches for synonyms.
+     *
+     * @return the number of the searches
+     */
+    long getFindCount();
+
+    /**
+     * Returns the mean latency of the searches.
+     *
+     * @return the mean latency
+     */
+    long getFindLatencyMean();
+
+    /**
+     * Returns the median latency of the searches.
+     *
+     * @return the median latency
+     */
+    long getFindLatencyP50();
+
+    /**
+     * Returns the 99th percentile latency of the searches.
+     *
+     * @return the 99th percentile latency
+     */
+    long getFindLatencyP99();
+
+    /**
+     * Returns the number of the lookups of each dictionary in the order of the
+     * precedence. The last element includes the dictionaries after it.
+     *
+     * @return the numbers of the lookups
+     */
+    long[] getLookupCounts();
+
+    /**
+     * Returns the number of the lookups which found synonym groups, for each
+     * dictionary as {@link #getLookupCounts}.
+     *
+     * @return the numbers of the hits
+     */
+    long[] getLookupHitCounts();
+
+    /**
+     * Returns the number of the synonym groups read from the dictionaries.
+     *
+     * @return the number of the groups
+     */
+    long getGroupsDecoded();
+
+    /**
+     * Returns the number of the groups dropped because the headword is ambiguous
+     * in them.
+     *
+     * @return the number of the dropped groups
+     */
+    long getAmbiguityFiltered();
+
+    /**
+     * Returns the number of the synonyms dropped because they are not nouns.
+     *
+     * @return the number of the dropped synonyms
+     */
+    long getPosFiltered();
+
+    /**
+     * Returns the number of the synonyms dropped by the filters of the callers.
+     *
+     * @return the number of the dropped synonyms
+     */
+    long getFlagsFiltered();
+
+    /**
+     * Returns the number of the hits of the caches of the results.
+     *
+     * @return the number of the hits
+     */
+    long getResultCacheHits();
+
+    /**
+     * Returns the number of the misses of the caches of the results.
+     *
+     * @return the number of the misses
+     */
+    long getResultCacheMisses();
+
+    /**
+     * Returns the number of the hits of the caches of the synonym groups.
+     *
+     * @return the number of the hits
+     */
+    long getGroupCacheHits();
+
+    /**
+     * Returns the number of the misses of the caches of the synonym groups.
+     *
+     * @return the number of the misses
+     */
+    long getGroupCacheMisses();
+
+    /**
+     * Returns the number of the dictionaries read.
+     *
+     * @return the number of the dictionaries
+     */
+    long getDictionaryLoadCount();
+
+    /**
+     * Returns the 99th percentile time to read a dictionary.
+     *
+     * @return the 99th percentile time
+     */
+    long getDictionaryLoadLatencyP99();
+
+    /**
+     * Returns the number of the dictionaries unmapped.
+     *
+     * @return the number of the dictionaries
+     */
+    long getDictionaryUnloadCount();
+
+    /**
+     * Returns the 99th percentile time to unmap a dictionary.
+     *
+     * @return the 99th percentile time
+     */
+    long getDictionaryUnloadLatencyP99();
+
+    /**
+     * Returns the number of the dictionaries warmed up.
+     *
+     * @return the number of the dictionaries
+     */
+    long getDictionaryWarmupCount();
+
+    /**
+     * Returns the 99th percentile time to warm up a dictionary.
+     *
+     * @return the 99th percentile time
+     */
+    long getDictionaryWarmupLatencyP99();
+}
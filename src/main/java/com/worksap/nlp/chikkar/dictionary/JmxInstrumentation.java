@@ -0,0 +1,260 @@
+/*
+ * Copyright (c) 2020 Works Applications Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.nlp.chikkar.dictionary;
+
+import java.io.Closeable;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * An instrumentation which counts the events and exposes them through JMX.
+ *
+ * <p>
+ * To use it as the default instrumentation, list this class in
+ * {@code META-INF/services/com.worksap.nlp.chikkar.dictionary.Instrumentation}.
+ * It is then registered to the platform MBean server as
+ * {@value #DEFAULT_NAME}.
+ */
+public class JmxInstrumentation implements Instrumentation, InstrumentationMXBean, Closeable {
+
+    /** the name with which the default constructor registers the instance */
+    public static final String DEFAULT_NAME = "com.worksap.nlp.chikkar:type=Instrumentation";
+
+    static final int MAX_LAYERS = 16;
+
+    private final MBeanServer server;
+    private final ObjectName name;
+
+    private final LatencyHistogram findLatency = new LatencyHistogram();
+    private final LongAdder[] lookups = newCounters(MAX_LAYERS);
+    private final LongAdder[] lookupHits = newCounters(MAX_LAYERS);
+    private final LongAdder groupsDecoded = new LongAdder();
+    private final LongAdder[] filtered = newCounters(Filter.values().length);
+    private final LongAdder[] cacheHits = newCounters(Cache.values().length);
+    private final LongAdder[] cacheMisses = newCounters(Cache.values().length);
+    private final LatencyHistogram loadLatency = new LatencyHistogram();
+    private final LatencyHistogram unloadLatency = new LatencyHistogram();
+    private final LatencyHistogram warmupLatency = new LatencyHistogram();
+
+    /**
+     * Constructs a new instrumentation registered to the platform MBean server
+     * as {@value #DEFAULT_NAME}.
+     *
+     * @throws IllegalStateException
+     *             if the registration is failed
+     */
+    public JmxInstrumentation() {
+        this(ManagementFactory.getPlatformMBeanServer(), DEFAULT_NAME);
+    }
+
+    /**
+     * Constructs a new instrumentation registered to the specified MBean server
+     * with the specified name.
+     *
+     * @param server
+     *            the MBean server
+     * @param name
+     *            the object name
+     * @throws IllegalStateException
+     *             if the registration is failed
+     */
+    public JmxInstrumentation(MBeanServer server, String name) {
+        this.server = server;
+        try {
+            this.name = new ObjectName(name);
+            server.registerMBean(this, this.name);
+        } catch (JMException e) {
+            throw new IllegalStateException("failed to register " + name, e);
+        }
+    }
+
+    private static LongAdder[] newCounters(int size) {
+        LongAdder[] counters = new LongAdder[size];
+        for (int i = 0; i < size; i++) {
+            counters[i] = new LongAdder();
+        }
+        return counters;
+    }
+
+    private static long[] sums(LongAdder[] counters) {
+        long[] sums = new long[counters.length];
+        for (int i = 0; i < counters.length; i++) {
+            sums[i] = counters[i].sum();
+        }
+        return sums;
+    }
+
+    @Override
+    public void found(long nanos) {
+        findLatency.record(nanos);
+    }
+
+    @Override
+    public void lookedUp(int layer, boolean isHit) {
+        int index = Math.min(layer, MAX_LAYERS - 1);
+        lookups[index].increment();
+        if (isHit) {
+            lookupHits[index].increment();
+        }
+    }
+
+    @Override
+    public void groupDecoded() {
+        groupsDecoded.increment();
+    }
+
+    @Override
+    public void filtered(Filter filter, int count) {
+        filtered[filter.ordinal()].add(count);
+    }
+
+    @Override
+    public void cacheAccessed(Cache cache, boolean isHit) {
+        (isHit ? cacheHits : cacheMisses)[cache.ordinal()].increment();
+    }
+
+    @Override
+    public void dictionaryLoaded(String fileName, long nanos) {
+        loadLatency.record(nanos);
+    }
+
+    @Override
+    public void dictionaryUnloaded(String fileName, long nanos) {
+        unloadLatency.record(nanos);
+    }
+
+    @Override
+    public void dictionaryWarmedUp(String fileName, long nanos) {
+        warmupLatency.record(nanos);
+    }
+
+    @Override
+    public long getFindCount() {
+        return findLatency.count();
+    }
+
+    @Override
+    public long getFindLatencyMean() {
+        return findLatency.mean();
+    }
+
+    @Override
+    public long getFindLatencyP50() {
+        return findLatency.percentile(50);
+    }
+
+    @Override
+    public long getFindLatencyP99() {
+        return findLatency.percentile(99);
+    }
+
+    @Override
+    public long[] getLookupCounts() {
+        return sums(lookups);
+    }
+
+    @Override
+    public long[] getLookupHitCounts() {
+        return sums(lookupHits);
+    }
+
+    @Override
+    public long getGroupsDecoded() {
+        return groupsDecoded.sum();
+    }
+
+    @Override
+    public long getAmbiguityFiltered() {
+        return filtered[Filter.AMBIGUITY.ordinal()].sum();
+    }
+
+    @Override
+    public long getPosFiltered() {
+        return filtered[Filter.POS.ordinal()].sum();
+    }
+
+    @Override
+    public long getFlagsFiltered() {
+        return filtered[Filter.FLAGS.ordinal()].sum();
+    }
+
+    @Override
+    public long getResultCacheHits() {
+        return cacheHits[Cache.RESULT.ordinal()].sum();
+    }
+
+    @Override
+    public long getResultCacheMisses() {
+        return cacheMisses[Cache.RESULT.ordinal()].sum();
+    }
+
+    @Override
+    public long getGroupCacheHits() {
+        return cacheHits[Cache.GROUP.ordinal()].sum();
+    }
+
+    @Override
+    public long getGroupCacheMisses() {
+        return cacheMisses[Cache.GROUP.ordinal()].sum();
+    }
+
+    @Override
+    public long getDictionaryLoadCount() {
+        return loadLatency.count();
+    }
+
+    @Override
+    public long getDictionaryLoadLatencyP99() {
+        return loadLatency.percentile(99);
+    }
+
+    @Override
+    public long getDictionaryUnloadCount() {
+        return unloadLatency.count();
+    }
+
+    @Override
+    public long getDictionaryUnloadLatencyP99() {
+        return unloadLatency.percentile(99);
+    }
+
+    @Override
+    public long getDictionaryWarmupCount() {
+        return warmupLatency.count();
+    }
+
+    @Override
+    public long getDictionaryWarmupLatencyP99() {
+        return warmupLatency.percentile(99);
+    }
+
+    /**
+     * Unregisters this instance from the MBean server.
+     */
+    @Override
+    public void close() {
+        try {
+            server.unregisterMBean(name);
+        } catch (JMException e) {
+            // already unregistered
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2020 Works Applications Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.nlp.chikkar.dictionary;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A thread-safe histogram of latencies in buckets of the powers of two.
+ *
+ * <p>
+ * A percentile is reported as the upper bound of its bucket, so it is at most
+ * twice as large as the actual value.
+ */
+class LatencyHistogram {
+
+    private final LongAdder[] buckets = new LongAdder[Long.SIZE];
+    private final LongAdder total = new LongAdder();
+
+    LatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    void record(long nanos) {
+        // [2^i, 2^(i+1)) in the i-th bucket, and 0 in the first
+        int index = (nanos <= 1) ? 0 : Long.SIZE - 1 - Long.numberOfLeadingZeros(nanos);
+        buckets[index].increment();
+        total.add(nanos);
+    }
+
+    long count() {
+        long count = 0;
+        for (LongAdder bucket : buckets) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    long mean() {
+        long count = count();
+        return (count == 0) ? 0L : total.sum() / count;
+    }
+
+    /**
+     * Returns the upper bound of the bucket which contains the specified
+     * percentile, or {@code 0} if nothing is recorded.
+     */
+    long percentile(double percentile) {
+        long[] counts = new long[buckets.length];
+        long count = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            counts[i] = buckets[i].sum();
+            count += counts[i];
+        }
+        long rank = (long) Math.ceil(count * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank && seen > 0) {
+                return (i == Long.SIZE - 1) ? Long.MAX_VALUE : (1L << (i + 1)) - 1;
+            }
+        }
+        return 0L;
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2020 Works Applications Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.nlp.chikkar.dictionary;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The layers of a merged dictionary, in the order of the precedence.
+ *
+ * <p>
+ * The table is empty unless the dictionary is merged from others. Otherwise it
+ * begins with the limit of the group IDs kept from the layer searched by the
+ * group IDs, followed by a byte per layer telling whether the layer is
+ * searched by the headwords.
+ */
+class LayerTable {
+
+    private static final int FLAGS_OFFSET = 4;
+
+    private final ByteBuffer bytes;
+    private final int size;
+    private final int groupIdsLayer;
+    private final int groupIdLimit;
+
+    /**
+     * Reads the table from the section of the dictionary.
+     */
+    LayerTable(ByteBuffer section) {
+        bytes = section;
+        if (section.limit() < FLAGS_OFFSET) {
+            size = 0;
+            groupIdLimit = 0;
+        } else {
+            size = section.limit() - FLAGS_OFFSET;
+            groupIdLimit = section.getInt(0);
+        }
+        int layer = -1;
+        for (int i = 0; i < size && layer < 0; i++) {
+            if (!enableTrie(i)) {
+                layer = i;
+            }
+        }
+        groupIdsLayer = layer;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    boolean enableTrie(int layer) {
+        return bytes.get(FLAGS_OFFSET + layer) != 0;
+    }
+
+    /**
+     * Returns the first layer which is searched by the synonym group IDs, or
+     * {@code -1} if all the layers are searched by the headwords.
+     */
+    int groupIdsLayer() {
+        return groupIdsLayer;
+    }
+
+    /**
+     * Returns whether the synonym group ID is kept from the layer searched by
+     * the group IDs. The groups of the other layers are numbered after them.
+     */
+    boolean isKeptGroupId(int groupId) {
+        return groupId >= 0 && groupId < groupIdLimit;
+    }
+}
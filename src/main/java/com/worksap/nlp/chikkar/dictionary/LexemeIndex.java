@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2020 Works Applications Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.nlp.chikkar.dictionary;
+
+import java.nio.ByteBuffer;
+import java.util.function.IntConsumer;
+
+/**
+ * The index from the pairs of the synonym group ID and the lexeme ID to the
+ * indices of the synonyms in the group.
+ *
+ * <p>
+ * The index is an open-addressing hash table with linear probing, whose number
+ * of the slots is a power of two and at least twice the number of the keys.
+ * Each slot has the group ID, the lexeme ID and the offset of the postings in
+ * the section, which is {@code 0} if the slot is empty. The postings are the
+ * number of the synonyms followed by their indices, all in shorts.
+ */
+class LexemeIndex {
+
+    static final int SLOT_SIZE = 4 + 4 + 4;
+
+    private final ByteBuffer bytes;
+    private final int mask;
+
+    LexemeIndex(ByteBuffer section) {
+        bytes = section;
+        mask = section.getInt(0) - 1;
+    }
+
+    static int hash(int groupId, int lexemeId) {
+        int h = groupId * 0x9e3779b9 + lexemeId;
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        return h ^ (h >>> 13);
+    }
+
+    static int slotOffset(int slot) {
+        return 4 + SLOT_SIZE * slot;
+    }
+
+    /**
+     * Passes the indices of the synonyms of the lexeme to the consumer, and
+     * returns the number of them.
+     */
+    int forEach(int groupId, int lexemeId, IntConsumer consumer) {
+        for (int slot = hash(groupId, lexemeId) & mask;; slot = (slot + 1) & mask) {
+            int offset = slotOffset(slot);
+            int postings = bytes.getInt(offset + 8);
+            if (postings == 0) {
+                return 0;
+            }
+            if (bytes.getInt(offset) == groupId && bytes.getInt(offset + 4) == lexemeId) {
+                int length = bytes.getShort(postings);
+                for (int i = 0; i < length; i++) {
+                    consumer.accept(bytes.getShort(postings + 2 + 2 * i));
+                }
+                return length;
+            }
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2020 Works Applications Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.nlp.chikkar.dictionary;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A policy to bring a dictionary into memory before it is searched.
+ *
+ * <p>
+ * A dictionary file is mapped lazily, so the first searches read the pages of
+ * the file from the disk. A policy reads the pages in advance, and warms the
+ * groups of the frequent keys.
+ *
+ * <pre>{@code
+ * LoadPolicy policy = LoadPolicy.of(LoadPolicy.Preload.INDEX).withHotWords(frequentWords);
+ * Dictionary dictionary = new Dictionary("system_syn.dic", true, policy);
+ * }</pre>
+ */
+public final class LoadPolicy {
+
+    /**
+     * Parts of a dictionary to read in advance.
+     */
+    public enum Preload {
+        /** reads nothing */
+        NONE,
+        /** reads the trie and the indices, but not the synonym groups */
+        INDEX,
+        /** reads the whole file */
+        ALL,
+        /**
+         * decodes the synonym groups into arrays on the heap, which serve the
+         * groups instead of the file, and reads the trie and the indices
+         */
+        HEAP,
+    }
+
+    /** the policy which reads nothing in advance */
+    public static final LoadPolicy LAZY = of(Preload.NONE);
+
+    private final Preload preload;
+    private final List<String> hotWords;
+    private final int[] hotGroupIds;
+
+    private LoadPolicy(Preload preload, List<String> hotWords, int[] hotGroupIds) {
+        this.preload = Objects.requireNonNull(preload);
+        this.hotWords = hotWords;
+        this.hotGroupIds = hotGroupIds;
+    }
+
+    /**
+     * Returns a policy which reads the specified part of a dictionary.
+     *
+     * @param preload
+     *            the part to read in advance
+     * @return the policy
+     */
+    public static LoadPolicy of(Preload preload) {
+        return new LoadPolicy(preload, Collections.emptyList(), new int[0]);
+    }
+
+    /**
+     * Returns a policy which also reads the groups of the specified headwords.
+     *
+     * @param words
+     *            the frequent headwords
+     * @return the new policy
+     */
+    public LoadPolicy withHotWords(Collection<String> words) {
+        return new LoadPolicy(preload, Collections.unmodifiableList(new ArrayList<>(words)), hotGroupIds);
+    }
+
+    /**
+     * Returns a policy which also reads the groups with the specified IDs.
+     *
+     * @param groupIds
+     *            the IDs of the frequent synonym groups
+     * @return the new policy
+     */
+    public LoadPolicy withHotGroupIds(int... groupIds) {
+        return new LoadPolicy(preload, hotWords, groupIds.clone());
+    }
+
+    /**
+     * Returns the part of a dictionary to read in advance.
+     *
+     * @return the part to read
+     */
+    public Preload preload() {
+        return preload;
+    }
+
+    /**
+     * Returns the headwords whose groups are read in advance.
+     *
+     * @return the unmodifiable list of the headwords
+     */
+    public List<String> hotWords() {
+        return hotWords;
+    }
+
+    /**
+     * Returns the IDs of the groups read in advance.
+     *
+     * @return the IDs of the groups
+     */
+    public int[] hotGroupIds() {
+        return hotGroupIds.clone();
+    }
+
+    boolean isLazy() {
+        return preload == Preload.NONE && hotWords.isEmpty() && hotGroupIds.length == 0;
+    }
+}
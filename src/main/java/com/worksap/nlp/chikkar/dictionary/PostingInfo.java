@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2020 Works Applications Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.nlp.chikkar.dictionary;
+
+/**
+ * The information stored with a group ID in the trie.
+ *
+ * <p>
+ * The lowest bit is the ambiguity of the headword and the next 15 bits are the
+ * index of the headword in the group. The next 8 bits are the layer of the
+ * group in a merged dictionary. The higher bits are reserved.
+ */
+class PostingInfo {
+
+    private PostingInfo() {
+    }
+
+    static final int MAX_LAYERS = 0x100;
+
+    static int encode(int memberIndex, boolean hasAmbiguity) {
+        return encode(memberIndex, hasAmbiguity, 0);
+    }
+
+    static int encode(int memberIndex, boolean hasAmbiguity, int layer) {
+        if (memberIndex < 0 || memberIndex > 0x7fff) {
+            throw new IllegalArgumentException("invalid member index: " + memberIndex);
+        }
+        if (layer < 0 || layer >= MAX_LAYERS) {
+            throw new IllegalArgumentException("invalid layer: " + layer);
+        }
+        return (layer << 16) | (memberIndex << 1) | (hasAmbiguity ? 1 : 0);
+    }
+
+    static int memberIndex(int info) {
+        return (info >>> 1) & 0x7fff;
+    }
+
+    static int layer(int info) {
+        return (info >>> 16) & 0xff;
+    }
+
+    static boolean hasAmbiguity(int info) {
+        return (info & 1) == 1;
+    }
+}
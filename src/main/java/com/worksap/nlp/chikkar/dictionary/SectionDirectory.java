@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2020 Works Applications Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.nlp.chikkar.dictionary;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+
+/**
+ * The directory of the sections of a dictionary.
+ *
+ * <p>
+ * The directory follows the header, and has the number of the sections
+ * followed by the ID, the offset from the beginning of the file and the length
+ * of each section. Every section starts at a multiple of {@link #ALIGNMENT}
+ * bytes, and is read as a slice of its own, so a section is located without
+ * reading the others. Sections with unknown IDs are ignored.
+ */
+class SectionDirectory {
+
+    static final int ALIGNMENT = 8;
+
+    static final int TRIE = 1;
+    static final int ID_TABLE = 2;
+    static final int LAYER_TABLE = 3;
+    static final int STRING_TABLE = 4;
+    static final int GROUP_INDEX = 5;
+    static final int GROUPS = 6;
+    static final int LEXEME_INDEX = 7;
+
+    /** the number of the sections written by this version */
+    static final int SECTION_COUNT = 7;
+
+    private static final int ENTRY_SIZE = 4 + 4 + 4;
+
+    private final ByteBuffer bytes;
+    private final int size;
+    private final int offset;
+
+    SectionDirectory(ByteBuffer bytes, int offset) {
+        this.bytes = bytes;
+        size = bytes.getInt(offset);
+        this.offset = offset + 4;
+    }
+
+    static int storageSize(int count) {
+        return 4 + ENTRY_SIZE * count;
+    }
+
+    /**
+     * Returns the section with the specified ID as a little-endian buffer which
+     * starts at the beginning of the section.
+     *
+     * The position of the buffer of the dictionary is not changed.
+     */
+    ByteBuffer section(int id) throws IOException {
+        ByteBuffer section = findSection(id);
+        if (section == null) {
+            throw new IOException("missing section: " + id);
+        }
+        return section;
+    }
+
+    /**
+     * Returns the section with the specified ID as {@link #section}, or
+     * {@code null} if the dictionary does not have it.
+     */
+    ByteBuffer findSection(int id) throws IOException {
+        for (int i = 0; i < size; i++) {
+            int entry = offset + ENTRY_SIZE * i;
+            if (bytes.getInt(entry) != id) {
+                continue;
+            }
+            int start = bytes.getInt(entry + 4);
+            int length = bytes.getInt(entry + 8);
+            if (start < 0 || length < 0 || start > bytes.limit() - length) {
+                throw new IOException("invalid section: " + id);
+            }
+            ByteBuffer view = bytes.duplicate();
+            ((Buffer) view).position(start); // a kludge for Java 9
+            ((Buffer) view).limit(start + length);
+            return view.slice().order(bytes.order());
+        }
+        return null;
+    }
+}
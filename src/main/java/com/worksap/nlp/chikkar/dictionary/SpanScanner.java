@@ -0,0 +1,258 @@
+/*
+ * Copyright (c) 2020 Works Applications Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.nlp.chikkar.dictionary;
+
+import java.util.Arrays;
+
+/**
+ * A scanner of the spans of a text which are headwords of synonyms.
+ *
+ * <p>
+ * The scanner walks the tries of all the dictionaries together from each
+ * position of the text, and reports each span with the synonym group IDs of
+ * the first dictionary that contains it. Like
+ * {@link com.worksap.nlp.chikkar.Chikkar#find}, the groups in which the
+ * headword is ambiguous are skipped. No objects are allocated per match.
+ *
+ * <p>
+ * This class is not thread-safe.
+ */
+public class SpanScanner implements DoubleArrayTrie.PostingConsumer {
+
+    /**
+     * Modes to select the spans to report.
+     */
+    public enum Mode {
+        /**
+         * reports the longest span from the leftmost position, and continues after
+         * it
+         */
+        LEFTMOST_LONGEST,
+        /** reports all the spans, including overlapping ones */
+        ALL_MATCHES,
+    }
+
+    /**
+     * A consumer of the spans.
+     */
+    @FunctionalInterface
+    public interface SpanConsumer {
+        /**
+         * Performs this operation on a span.
+         *
+         * @param begin
+         *            the beginning offset of the span, inclusive
+         * @param end
+         *            the ending offset of the span, exclusive
+         * @param groupId
+         *            the ID of a synonym group which contains the headword
+         */
+        void accept(int begin, int end, int groupId);
+    }
+
+    private int[] nodes = new int[0];
+    private int[] matchEnds = new int[16];
+    private int[] matchDictionaries = new int[16];
+    private int[] matchIndices = new int[16];
+    private int matchCount;
+
+    private SpanConsumer consumer;
+    private int begin;
+    private int end;
+    private int count;
+
+    /**
+     * Passes the spans of the text to the consumer, in the order of the
+     * beginning offsets and then the ending offsets.
+     *
+     * The offsets are the indices of the chars.
+     *
+     * @param dictionaries
+     *            the dictionaries in the order of the precedence
+     * @param text
+     *            the text to scan
+     * @param mode
+     *            the mode to select the spans
+     * @param consumer
+     *            the consumer of the spans
+     * @return the number of the spans passed to the consumer
+     */
+    public int scan(Dictionary[] dictionaries, CharSequence text, Mode mode, SpanConsumer consumer) {
+        start(dictionaries, consumer);
+        try {
+            int length = text.length();
+            int i = 0;
+            while (i < length) {
+                int alive = resetNodes();
+                int j = i;
+                while (j < length && alive > 0) {
+                    char c = text.charAt(j++);
+                    int codePoint = c;
+                    if (Character.isSurrogate(c)) {
+                        if (Character.isHighSurrogate(c) && j < length && Character.isLowSurrogate(text.charAt(j))) {
+                            codePoint = Character.toCodePoint(c, text.charAt(j++));
+                        } else {
+                            codePoint = '?'; // same as String#getBytes
+                        }
+                    }
+                    alive = 0;
+                    for (int d = 0; d < dictionaries.length; d++) {
+                        if (nodes[d] >= 0) {
+                            nodes[d] = dictionaries[d].trie.transit(nodes[d], codePoint);
+                            alive += match(dictionaries, d, j);
+                        }
+                    }
+                }
+                int next = i + ((Character.isHighSurrogate(text.charAt(i)) && i + 1 < length
+                        && Character.isLowSurrogate(text.charAt(i + 1))) ? 2 : 1);
+                i = emit(dictionaries, i, mode, next);
+            }
+            return count;
+        } finally {
+            this.consumer = null;
+        }
+    }
+
+    /**
+     * Passes the spans of the UTF-8 text to the consumer, in the order of the
+     * beginning offsets and then the ending offsets.
+     *
+     * The offsets are the indices of the bytes in {@code text}.
+     *
+     * @param dictionaries
+     *            the dictionaries in the order of the precedence
+     * @param text
+     *            the UTF-8 text to scan
+     * @param offset
+     *            the offset of the text in {@code text}
+     * @param length
+     *            the number of the bytes of the text
+     * @param mode
+     *            the mode to select the spans
+     * @param consumer
+     *            the consumer of the spans
+     * @return the number of the spans passed to the consumer
+     */
+    public int scan(Dictionary[] dictionaries, byte[] text, int offset, int length, Mode mode,
+            SpanConsumer consumer) {
+        start(dictionaries, consumer);
+        try {
+            int limit = offset + length;
+            int i = offset;
+            while (i < limit) {
+                if ((text[i] & 0xc0) == 0x80) {
+                    // not the first byte of a character
+                    i++;
+                    continue;
+                }
+                int alive = resetNodes();
+                int j = i;
+                while (j < limit && alive > 0) {
+                    int label = Byte.toUnsignedInt(text[j++]);
+                    alive = 0;
+                    for (int d = 0; d < dictionaries.length; d++) {
+                        if (nodes[d] >= 0) {
+                            nodes[d] = dictionaries[d].trie.transitByte(nodes[d], label);
+                            alive += match(dictionaries, d, j);
+                        }
+                    }
+                }
+                i = emit(dictionaries, i, mode, i + 1);
+            }
+            return count;
+        } finally {
+            this.consumer = null;
+        }
+    }
+
+    private void start(Dictionary[] dictionaries, SpanConsumer consumer) {
+        if (nodes.length < dictionaries.length) {
+            nodes = new int[dictionaries.length];
+        }
+        this.consumer = consumer;
+        count = 0;
+    }
+
+    private int resetNodes() {
+        for (int d = 0; d < nodes.length; d++) {
+            nodes[d] = 0;
+        }
+        matchCount = 0;
+        return nodes.length;
+    }
+
+    /**
+     * Records the key which ends at the node of the dictionary, unless a
+     * dictionary with higher precedence has the same key. Returns {@code 1} if
+     * the node exists, otherwise {@code 0}.
+     */
+    private int match(Dictionary[] dictionaries, int d, int end) {
+        if (nodes[d] < 0) {
+            return 0;
+        }
+        if (matchCount > 0 && matchEnds[matchCount - 1] == end) {
+            return 1;
+        }
+        int index = dictionaries[d].trie.postingsIndexAt(nodes[d]);
+        if (index >= 0) {
+            if (matchCount == matchEnds.length) {
+                int capacity = matchCount * 2;
+                matchEnds = Arrays.copyOf(matchEnds, capacity);
+                matchDictionaries = Arrays.copyOf(matchDictionaries, capacity);
+                matchIndices = Arrays.copyOf(matchIndices, capacity);
+            }
+            matchEnds[matchCount] = end;
+            matchDictionaries[matchCount] = d;
+            matchIndices[matchCount] = index;
+            matchCount++;
+        }
+        return 1;
+    }
+
+    /**
+     * Passes the recorded spans from {@code begin} to the consumer, and returns
+     * the offset to scan next.
+     */
+    private int emit(Dictionary[] dictionaries, int begin, Mode mode, int next) {
+        this.begin = begin;
+        if (mode == Mode.ALL_MATCHES) {
+            for (int m = 0; m < matchCount; m++) {
+                end = matchEnds[m];
+                dictionaries[matchDictionaries[m]].acceptPostings(matchIndices[m], this);
+            }
+            return next;
+        }
+        for (int m = matchCount - 1; m >= 0; m--) {
+            end = matchEnds[m];
+            int before = count;
+            dictionaries[matchDictionaries[m]].acceptPostings(matchIndices[m], this);
+            if (count > before) {
+                return end;
+            }
+        }
+        return next;
+    }
+
+    @Override
+    public void accept(int groupId, int memberIndex, boolean hasAmbiguity) {
+        if (hasAmbiguity) {
+            return;
+        }
+        consumer.accept(begin, end, groupId);
+        count++;
+    }
+}
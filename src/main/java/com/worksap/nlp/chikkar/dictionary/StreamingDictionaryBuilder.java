@@ -0,0 +1,336 @@
+/*
+ * Copyright (c) 2020 Works Applications Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.nlp.chikkar.dictionary;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.stream.Stream;
+
+/**
+ * A dictionary builder which keeps the synonym groups out of memory.
+ *
+ * <p>
+ * The synonym groups are written to a temporary file as soon as they are
+ * parsed. The postings of the trie are sorted in runs of {@code runSize}, which
+ * are spilled to temporary files and merged at the end. The index of the
+ * groups, the distinct headwords, which the trie is built from, and the string
+ * table are kept in memory, as are the keys of the index of the lexemes, eight
+ * bytes for each lexeme ID of the synonyms, from which the index is built in
+ * memory as {@link DictionaryBuilder} does.
+ *
+ * <p>
+ * The groups are written in the order of the input, so the output is the same
+ * as {@link DictionaryBuilder} if the input is sorted by the group IDs.
+ */
+class StreamingDictionaryBuilder extends DictionaryBuilder {
+
+    static final int DEFAULT_RUN_SIZE = 1 << 18;
+
+    static class Posting {
+        final byte[] key;
+        final int groupId;
+        final int info;
+
+        Posting(byte[] key, int groupId, int info) {
+            this.key = key;
+            this.groupId = groupId;
+            this.info = info;
+        }
+    }
+
+    Path tempDirectory;
+    int runSize = DEFAULT_RUN_SIZE;
+
+    private Path workDirectory;
+    private final List<Posting> pendingPostings = new ArrayList<>();
+    private final List<Path> runs = new ArrayList<>();
+    private FileChannel groups;
+    private long[] groupIndex = new long[1024];
+    private int groupCount;
+
+    @Override
+    void build(String inputPath, FileOutputStream output) throws IOException {
+        workDirectory = (tempDirectory == null) ? Files.createTempDirectory("chikkar")
+                : Files.createTempDirectory(tempDirectory, "chikkar");
+        try {
+            groups = FileChannel.open(workDirectory.resolve("groups"), StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            read(inputPath);
+            spillRun();
+
+            FileChannel outputChannel = output.getChannel();
+            writeSections(outputChannel);
+            outputChannel.close();
+        } finally {
+            if (groups != null) {
+                groups.close();
+            }
+            delete(workDirectory);
+        }
+    }
+
+    /**
+     * Writes the group to the temporary file, adding its strings to the string
+     * table, and keeps its postings.
+     */
+    @Override
+    void addSynonymGroup(List<SynonymEntry> entries) throws IOException {
+        for (int i = 0; i < entries.size(); i++) {
+            SynonymEntry entry = entries.get(i);
+            int info = PostingInfo.encode(i, entry.flags.hasAmbiguity());
+            pendingPostings.add(new Posting(entry.headword.getBytes(StandardCharsets.UTF_8), entry.groupId, info));
+        }
+        if (pendingPostings.size() >= runSize) {
+            spillRun();
+        }
+
+        int position = toOffset(groups.position());
+        if (groupCount == groupIndex.length) {
+            groupIndex = Arrays.copyOf(groupIndex, groupCount * 2);
+        }
+        groupIndex[groupCount++] = ((long) entries.get(0).groupId << 32) | (position & 0xffffffffL);
+
+        buffer.clear();
+        writeSynonymGroup(entries);
+        buffer.flip();
+        while (byteBuffer.hasRemaining()) {
+            groups.write(byteBuffer);
+        }
+        buffer.clear();
+    }
+
+    void spillRun() throws IOException {
+        if (pendingPostings.isEmpty()) {
+            return;
+        }
+        pendingPostings.sort((l, r) -> compareKeys(l.key, r.key));
+        Path run = workDirectory.resolve("run" + runs.size());
+        try (DataOutputStream output = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(run, StandardOpenOption.CREATE_NEW)))) {
+            for (Posting posting : pendingPostings) {
+                output.writeShort(posting.key.length);
+                output.write(posting.key);
+                output.writeInt(posting.groupId);
+                output.writeInt(posting.info);
+            }
+        }
+        runs.add(run);
+        pendingPostings.clear();
+    }
+
+    /**
+     * Returns the position in a temporary file as an offset in a section.
+     *
+     * @throws IllegalArgumentException
+     *             if the position does not fit in an offset
+     */
+    static int toOffset(long position) {
+        if (position > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("too large dictionary");
+        }
+        return (int) position;
+    }
+
+    static int compareKeys(byte[] l, byte[] r) {
+        int llen = l.length;
+        int rlen = r.length;
+        for (int i = 0; i < Math.min(llen, rlen); i++) {
+            if (l[i] != r[i]) {
+                return (l[i] & 0xff) - (r[i] & 0xff);
+            }
+        }
+        return l.length - r.length;
+    }
+
+    /**
+     * A reader of a run, which holds the current posting.
+     */
+    static class RunReader implements Comparable<RunReader> {
+        final int index;
+        final DataInputStream input;
+        Posting current;
+
+        RunReader(int index, Path path) throws IOException {
+            this.index = index;
+            input = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)));
+        }
+
+        boolean next() throws IOException {
+            int length;
+            try {
+                length = input.readUnsignedShort();
+            } catch (EOFException e) {
+                current = null;
+                return false;
+            }
+            byte[] key = new byte[length];
+            input.readFully(key);
+            current = new Posting(key, input.readInt(), input.readInt());
+            return true;
+        }
+
+        @Override
+        public int compareTo(RunReader other) {
+            int c = compareKeys(current.key, other.current.key);
+            return (c != 0) ? c : Integer.compare(index, other.index);
+        }
+    }
+
+    /**
+     * Merges the runs, and writes the trie and the ID table.
+     *
+     * The postings of a headword are in the order of the input, since the runs
+     * are merged in their order and sorted stably.
+     */
+    @Override
+    void writeTrie(FileChannel output) throws IOException {
+        List<byte[]> keys = new ArrayList<>();
+        int[] values = new int[1024];
+        Path idTablePath = workDirectory.resolve("ids");
+        List<RunReader> readers = new ArrayList<>();
+        try (FileChannel idTable = FileChannel.open(idTablePath, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            PriorityQueue<RunReader> queue = new PriorityQueue<>();
+            for (int i = 0; i < runs.size(); i++) {
+                RunReader reader = new RunReader(i, runs.get(i));
+                readers.add(reader);
+                if (reader.next()) {
+                    queue.add(reader);
+                }
+            }
+
+            List<Posting> postings = new ArrayList<>();
+            while (!queue.isEmpty()) {
+                byte[] key = queue.peek().current.key;
+                postings.clear();
+                while (!queue.isEmpty() && compareKeys(queue.peek().current.key, key) == 0) {
+                    RunReader reader = queue.poll();
+                    do {
+                        postings.add(reader.current);
+                    } while (reader.next() && compareKeys(reader.current.key, key) == 0);
+                    if (reader.current != null) {
+                        queue.add(reader);
+                    }
+                }
+
+                if (keys.size() == values.length) {
+                    values = Arrays.copyOf(values, values.length * 2);
+                }
+                values[keys.size()] = toOffset(idTable.position());
+                keys.add(key);
+                writePostings(idTable, postings);
+            }
+
+            writeDoubleArray(output, keys.toArray(new byte[keys.size()][]), Arrays.copyOf(values, keys.size()));
+
+            logger.info("writing the word-ID table...");
+            int start = beginSection(output);
+            transfer(idTable, output);
+            endSection(output, SectionDirectory.ID_TABLE, start);
+            printSize(idTable.size());
+        } finally {
+            for (RunReader reader : readers) {
+                reader.input.close();
+            }
+        }
+    }
+
+    void writePostings(FileChannel idTable, List<Posting> postings) throws IOException {
+        checkPostingsSize(postings.size());
+        buffer.clear();
+        reserve(1 + 8 * postings.size());
+        byteBuffer.put((byte) postings.size());
+        for (Posting posting : postings) {
+            byteBuffer.putInt(posting.groupId);
+            byteBuffer.putInt(posting.info);
+        }
+        buffer.flip();
+        while (byteBuffer.hasRemaining()) {
+            idTable.write(byteBuffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Writes the sorted index of the groups, and copies the groups from the
+     * temporary file as they are. The offsets in the index are relative to the
+     * temporary file, which is the section of the groups.
+     */
+    @Override
+    void writeSynonymGroups(FileChannel output) throws IOException {
+        long[] sorted = Arrays.copyOf(groupIndex, groupCount);
+        Arrays.sort(sorted);
+        for (int i = 1; i < groupCount; i++) {
+            if ((int) (sorted[i - 1] >> 32) == (int) (sorted[i] >> 32)) {
+                throw new IllegalArgumentException("group ID is duplicated: " + (int) (sorted[i] >> 32));
+            }
+        }
+
+        logger.info("writing synonym groups offsets...");
+        ByteBuffer offsets = ByteBuffer.allocate(8 * groupCount);
+        offsets.order(ByteOrder.LITTLE_ENDIAN);
+        for (long entry : sorted) {
+            offsets.putInt((int) (entry >> 32));
+            offsets.putInt((int) entry);
+        }
+        ((Buffer) offsets).flip(); // a kludge for Java 9
+        int index = beginSection(output);
+        output.write(offsets);
+        endSection(output, SectionDirectory.GROUP_INDEX, index);
+        printSize(offsets.capacity());
+
+        logger.info("writing the synonym groups...");
+        int start = beginSection(output);
+        transfer(groups, output);
+        endSection(output, SectionDirectory.GROUPS, start);
+        printSize(groups.size());
+    }
+
+    static void transfer(FileChannel input, FileChannel output) throws IOException {
+        long size = input.size();
+        long transferred = 0;
+        while (transferred < size) {
+            transferred += input.transferTo(transferred, size - transferred, output);
+        }
+    }
+
+    static void delete(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,412 @@
+/*
+ * Copyright (c) 2020 Works Applications Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.nlp.chikkar.dictionary;
+
+import java.nio.ByteBuffer;
+import java.util.function.Consumer;
+
+import com.worksap.nlp.chikkar.Synonym;
+
+/**
+ * A reusable view of the synonyms in a synonym group.
+ *
+ * <p>
+ * The cursor reads the synonyms directly from the dictionary and decodes
+ * nothing until it is asked. It is placed on a group by
+ * {@link Dictionary#getSynonyms(int, SynonymCursor)} and moved to each synonym
+ * by {@link #next}.
+ *
+ * <pre>{@code
+ * SynonymCursor cursor = new SynonymCursor();
+ * if (dictionary.getSynonyms(groupId, cursor)) {
+ *     while (cursor.next()) {
+ *         if (cursor.isNoun()) {
+ *             cursor.headword().appendTo(builder);
+ *         }
+ *     }
+ * }
+ * }</pre>
+ *
+ * <p>
+ * This class is not thread-safe.
+ */
+public class SynonymCursor {
+
+    private ByteBuffer bytes;
+    private int groupId;
+    private int size;
+    private int groupOffset;
+    private ByteBuffer strings;
+    private int start;
+    private int memberTable;
+    private int nounTable;
+    private int nounCount;
+
+    private int index;
+    private int next;
+    private final BufferCharSequence headword = new BufferCharSequence();
+    private final BufferCharSequence category = new BufferCharSequence();
+    private int lexemeIdsOffset;
+    private int lexemeIdsLength;
+    private short flags;
+
+    /**
+     * Constructs a new cursor which is not placed on any group.
+     */
+    public SynonymCursor() {
+        size = 0;
+        index = -1;
+    }
+
+    /**
+     * Places this cursor on the group at the specified offset.
+     *
+     * If {@code strings} is not {@code null}, the members of the group refer to
+     * the strings in the string table, and the group has the member table, with the positions
+     * of the members relative to the group, and the list of the nouns.
+     * Otherwise, the group is of a dictionary of the first version, and the
+     * members have the strings in UTF-16.
+     */
+    void reset(ByteBuffer bytes, int groupId, int offset, ByteBuffer strings) {
+        this.bytes = bytes;
+        this.groupId = groupId;
+        groupOffset = offset;
+        this.strings = strings;
+        size = bytes.getShort(offset);
+        if (strings != null) {
+            nounCount = bytes.getShort(offset + 2);
+            memberTable = offset + 4;
+            nounTable = memberTable + 4 * size;
+            start = nounTable + 2 * nounCount;
+        } else {
+            memberTable = -1;
+            start = offset + 2;
+        }
+        rewind();
+    }
+
+    /**
+     * Moves this cursor before the first synonym of the group.
+     */
+    public void rewind() {
+        index = -1;
+        next = start;
+    }
+
+    /**
+     * Moves this cursor to the next synonym.
+     *
+     * @return {@code true} if the cursor is on a synonym, or {@code false} if no
+     *         synonyms remain
+     */
+    public boolean next() {
+        if (index + 1 >= size) {
+            index = size;
+            return false;
+        }
+        index++;
+        int position = resetHeadword(next);
+        lexemeIdsLength = Byte.toUnsignedInt(bytes.get(position));
+        lexemeIdsOffset = position + 1;
+        position = lexemeIdsOffset + 2 * lexemeIdsLength;
+        flags = bytes.getShort(position);
+        if (strings != null) {
+            category.resetUtf8(strings, bytes.getInt(position + 2));
+            next = position + 6;
+        } else {
+            next = category.reset(bytes, position + 2);
+        }
+        return true;
+    }
+
+    /**
+     * Points the headword to that of the member at the specified position, and
+     * returns the position following the headword in the member.
+     */
+    private int resetHeadword(int position) {
+        if (strings != null) {
+            headword.resetUtf8(strings, bytes.getInt(position));
+            return position + 4;
+        }
+        return headword.reset(bytes, position);
+    }
+
+    /**
+     * Returns the position of the member at the specified index in the member
+     * table.
+     */
+    private int memberPosition(int i) {
+        return groupOffset + bytes.getInt(memberTable + 4 * i);
+    }
+
+    /**
+     * Returns the encoded flags of the member at the specified index in the
+     * member table, reading neither its headword nor its category.
+     */
+    private short flagsAt(int i) {
+        int position = memberPosition(i) + 4;
+        return bytes.getShort(position + 1 + 2 * Byte.toUnsignedInt(bytes.get(position)));
+    }
+
+    /**
+     * Moves this cursor to the next synonym accepted by the filter.
+     *
+     * If the group has the member table, the synonyms not accepted are skipped
+     * without reading their strings.
+     *
+     * @param filter
+     *            the filter of the synonyms
+     * @return {@code true} if the cursor is on a synonym, or {@code false} if no
+     *         synonyms remain
+     */
+    public boolean next(FlagFilter filter) {
+        if (memberTable < 0 || (!filter.needsFlags() && !filter.isNounOnly())) {
+            while (next()) {
+                if (filter.test(flags)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        while (index + 1 < size && !filter.test(flagsAt(index + 1))) {
+            index++;
+        }
+        if (index + 1 < size) {
+            next = memberPosition(index + 1);
+        }
+        return next();
+    }
+
+    /**
+     * Moves this cursor to the first synonym with the specified notation.
+     *
+     * @param text
+     *            the notation to search for
+     * @return {@code true} if the cursor is on the synonym, or {@code false} if
+     *         the group has no such synonym
+     */
+    public boolean seek(CharSequence text) {
+        if (memberTable < 0) {
+            rewind();
+            while (next()) {
+                if (headwordEquals(text)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            int position = memberPosition(i);
+            resetHeadword(position);
+            if (headword.contentEquals(text)) {
+                index = i - 1;
+                next = position;
+                return next();
+            }
+        }
+        index = size;
+        return false;
+    }
+
+    /**
+     * Moves this cursor to the synonym at the specified position in the group.
+     *
+     * @param i
+     *            the index of the synonym
+     * @throws IndexOutOfBoundsException
+     *             if {@code i} is out of the group
+     */
+    public void moveTo(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("index: " + i + ", size: " + size);
+        }
+        if (memberTable < 0) {
+            if (i <= index) {
+                rewind();
+            }
+            while (index < i) {
+                next();
+            }
+            return;
+        }
+        index = i - 1;
+        next = memberPosition(i);
+        next();
+    }
+
+    /**
+     * Passes the notations of the synonyms in the group accepted by the filter,
+     * except {@code excluded}, to the consumer, and moves this cursor after the
+     * last synonym.
+     *
+     * If the group has the member table, only the flags and the notations
+     * are read, and the notations are not decoded unless they are passed.
+     */
+    int acceptHeadwords(CharSequence excluded, FlagFilter filter, Consumer<? super CharSequence> consumer) {
+        int count = 0;
+        if (memberTable < 0) {
+            rewind();
+            while (next()) {
+                if (filter.test(flags) && !headwordEquals(excluded)) {
+                    consumer.accept(headword);
+                    count++;
+                }
+            }
+            return count;
+        }
+        boolean nounOnly = filter.isNounOnly();
+        boolean needsFlags = filter.needsFlags();
+        int n = nounOnly ? nounCount : size;
+        for (int i = 0; i < n; i++) {
+            int member = nounOnly ? bytes.getShort(nounTable + 2 * i) : i;
+            if (needsFlags && !filter.test(flagsAt(member))) {
+                continue;
+            }
+            resetHeadword(memberPosition(member));
+            if (!headword.contentEquals(excluded)) {
+                consumer.accept(headword);
+                count++;
+            }
+        }
+        index = size;
+        return count;
+    }
+
+    /**
+     * Returns the ID of the group.
+     *
+     * @return the ID of the group
+     */
+    public int groupId() {
+        return groupId;
+    }
+
+    /**
+     * Returns the number of the synonyms in the group.
+     *
+     * @return the number of the synonyms
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the position of the current synonym in the group.
+     *
+     * @return the index of the current synonym
+     */
+    public int index() {
+        return index;
+    }
+
+    /**
+     * Returns the notation of the current synonym.
+     *
+     * The returned sequence is overwritten when the cursor moves.
+     *
+     * @return the notation of the current synonym
+     */
+    public BufferCharSequence headword() {
+        return headword;
+    }
+
+    /**
+     * Returns {@code true} if the notation of the current synonym is the same as
+     * the specified text.
+     *
+     * @param text
+     *            the text to compare with
+     * @return {@code true} if the notation is the same, otherwise {@code false}
+     */
+    public boolean headwordEquals(CharSequence text) {
+        return headword.contentEquals(text);
+    }
+
+    /**
+     * Returns the category information of the current synonym.
+     *
+     * The returned sequence is overwritten when the cursor moves.
+     *
+     * @return the category information of the current synonym
+     */
+    public BufferCharSequence category() {
+        return category;
+    }
+
+    /**
+     * Returns the number of the lexeme IDs of the current synonym.
+     *
+     * @return the number of the lexeme IDs
+     */
+    public int lexemeIdCount() {
+        return lexemeIdsLength;
+    }
+
+    /**
+     * Returns a lexeme ID of the current synonym.
+     *
+     * @param i
+     *            the index of the lexeme ID
+     * @return the lexeme ID
+     */
+    public int lexemeIdAt(int i) {
+        if (i < 0 || i >= lexemeIdsLength) {
+            throw new IndexOutOfBoundsException("index: " + i + ", length: " + lexemeIdsLength);
+        }
+        return bytes.getShort(lexemeIdsOffset + 2 * i);
+    }
+
+    /**
+     * Returns the encoded flags of the current synonym.
+     *
+     * @return the encoded flags
+     */
+    public short flags() {
+        return flags;
+    }
+
+    /**
+     * Returns {@code true} if and only if the current synonym has ambiguity.
+     *
+     * @return {@code true} if the synonym is ambiguous, {@code false} otherwise
+     */
+    public boolean hasAmbiguity() {
+        return Flags.hasAmbiguity(flags);
+    }
+
+    /**
+     * Returns {@code true} if and only if the current synonym is a noun.
+     *
+     * @return {@code true} if the synonym is a noun, {@code false} otherwise
+     */
+    public boolean isNoun() {
+        return Flags.isNoun(flags);
+    }
+
+    /**
+     * Returns a new synonym with the values of the current synonym.
+     *
+     * @return the current synonym
+     */
+    public Synonym toSynonym() {
+        int[] lexemeIds = new int[lexemeIdsLength];
+        for (int i = 0; i < lexemeIdsLength; i++) {
+            lexemeIds[i] = bytes.getShort(lexemeIdsOffset + 2 * i);
+        }
+        return new Synonym(headword.toString(), lexemeIds, new Flags(flags), category.toString());
+    }
+}
@@ -16,85 +16,133 @@
 
 package com.worksap.nlp.chikkar.dictionary;
 
-import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 
 import com.worksap.nlp.chikkar.Synonym;
 import com.worksap.nlp.chikkar.SynonymGroup;
 
 class SynonymGroupList {
+    private static final int ENTRY_SIZE = 4 + 4;
+
+    private final ByteBuffer index;
     private final ByteBuffer bytes;
     private final int size;
-    private final Map<Integer, Integer> groupIdToOffset;
+    private final int indexOffset;
+    private final long[] legacyIndex;
+    /** the string table, or {@code null} for the first version */
+    private final ByteBuffer strings;
 
+    /**
+     * Reads the group index at the specified offset of a dictionary of the first
+     * version.
+     *
+     * The index is not sorted, so a sorted copy of the pairs of the group ID and
+     * the offset is built.
+     */
     SynonymGroupList(ByteBuffer bytes, int offset) {
-        this.bytes = bytes;
+        this(bytes, offset + 4, bytes.getInt(offset), bytes, null);
+    }
+
+    /**
+     * Reads the group index from its section, whose offsets are relative to the
+     * section of the groups. The index is sorted by the group IDs, and searched
+     * in the buffer directly. The groups refer to the strings in the section of
+     * the string table.
+     */
+    SynonymGroupList(ByteBuffer indexSection, ByteBuffer groupsSection, ByteBuffer stringsSection) {
+        this(indexSection, 0, indexSection.limit() / ENTRY_SIZE, groupsSection, stringsSection);
+    }
 
-        ByteBuffer buf = bytes.asReadOnlyBuffer();
-        buf.order(bytes.order());
-        ((Buffer) buf).position(offset);
-        this.size = buf.getInt();
+    private SynonymGroupList(ByteBuffer index, int indexOffset, int size, ByteBuffer bytes, ByteBuffer strings) {
+        this.index = index;
+        this.indexOffset = indexOffset;
+        this.size = size;
+        this.bytes = bytes;
+        this.strings = strings;
+        legacyIndex = (strings == null) ? sortIndex() : null;
+    }
 
-        groupIdToOffset = new HashMap<>();
-        for (int i = 0; i < this.size; i++) {
-            int gid = buf.getInt();
-            int off = buf.getInt();
-            groupIdToOffset.put(gid, off);
+    private long[] sortIndex() {
+        long[] sorted = new long[size];
+        for (int i = 0; i < size; i++) {
+            int gid = index.getInt(indexOffset + ENTRY_SIZE * i);
+            int off = index.getInt(indexOffset + ENTRY_SIZE * i + 4);
+            sorted[i] = ((long) gid << 32) | Integer.toUnsignedLong(off);
         }
+        Arrays.sort(sorted);
+        return sorted;
     }
 
-    Optional<SynonymGroup> getSynonymGroup(int gid) {
-        Integer offset = groupIdToOffset.get(gid);
-        if (offset == null) {
-            return Optional.empty();
+    /**
+     * Returns the offset of the group with the specified ID, or {@code -1} if the
+     * group is not found.
+     */
+    private int findOffset(int gid) {
+        if (size == 0) {
+            return -1;
+        }
+        int base = 0;
+        int n = size;
+        while (n > 1) {
+            int half = n >>> 1;
+            if (groupIdAt(base + half) <= gid) {
+                base += half;
+            }
+            n -= half;
         }
+        return (groupIdAt(base) == gid) ? offsetAt(base) : -1;
+    }
+
+    int size() {
+        return size;
+    }
 
-        ByteBuffer buf = bytes.asReadOnlyBuffer();
-        buf.order(bytes.order());
-        ((Buffer) buf).position(groupIdToOffset.get(gid));
-
-        List<Synonym> synonyms = new ArrayList<>();
-        int n = buf.getShort();
-        for (int i = 0; i < n; i++) {
-            String headword = bufferToString(buf);
-            int[] lexemeIds = bufferToShortArray(buf);
-            short flags = buf.getShort();
-            String category = bufferToString(buf);
-            synonyms.add(new Synonym(headword, lexemeIds, new Flags(flags), category));
+    int groupIdAt(int i) {
+        if (legacyIndex != null) {
+            return (int) (legacyIndex[i] >> 32);
         }
-        return Optional.of(new SynonymGroup(gid, synonyms));
+        return index.getInt(indexOffset + ENTRY_SIZE * i);
     }
 
-    private int bufferToStringLength(ByteBuffer buffer) {
-        byte length = buffer.get();
-        if (length < 0) {
-            int high = Byte.toUnsignedInt(length);
-            int low = Byte.toUnsignedInt(buffer.get());
-            return ((high & 0x7F) << 8) | low;
+    private int offsetAt(int i) {
+        if (legacyIndex != null) {
+            return (int) legacyIndex[i];
         }
-        return length;
+        return index.getInt(indexOffset + ENTRY_SIZE * i + 4);
     }
 
-    private String bufferToString(ByteBuffer buffer) {
-        int length = bufferToStringLength(buffer);
-        char[] str = new char[length];
-        for (int i = 0; i < length; i++) {
-            str[i] = buffer.getChar();
+    boolean getSynonyms(int gid, SynonymCursor cursor) {
+        int offset = findOffset(gid);
+        if (offset < 0) {
+            return false;
         }
-        return new String(str);
+        cursor.reset(bytes, gid, offset, strings);
+        return true;
     }
 
-    private int[] bufferToShortArray(ByteBuffer buffer) {
-        int length = Byte.toUnsignedInt(buffer.get());
-        int[] array = new int[length];
-        for (int i = 0; i < length; i++) {
-            array[i] = buffer.getShort();
+    Optional<SynonymGroup> getSynonymGroup(int gid) {
+        return getSynonymGroup(gid, FlagFilter.ALL);
+    }
+
+    /**
+     * Returns the group with only the synonyms accepted by the filter. The
+     * strings of the other synonyms are not read.
+     */
+    Optional<SynonymGroup> getSynonymGroup(int gid, FlagFilter filter) {
+        SynonymCursor cursor = new SynonymCursor();
+        if (!getSynonyms(gid, cursor)) {
+            return Optional.empty();
+        }
+
+        List<Synonym> synonyms = new ArrayList<>(cursor.size());
+        while (cursor.next(filter)) {
+            synonyms.add(cursor.toSynonym());
         }
-        return array;
+        return Optional.of(new SynonymGroup(gid, Collections.unmodifiableList(synonyms)));
     }
 }
@@ -17,13 +17,30 @@
 package com.worksap.nlp.chikkar;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
 
 import java.io.IOException;
+import java.lang.ref.WeakReference;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
+import com.worksap.nlp.chikkar.dictionary.BoundedCache;
 import com.worksap.nlp.chikkar.dictionary.Dictionary;
+import com.worksap.nlp.chikkar.dictionary.FlagFilter;
+import com.worksap.nlp.chikkar.dictionary.Instrumentation;
+import com.worksap.nlp.chikkar.dictionary.SpanScanner;
 
 import org.junit.After;
 import org.junit.Before;
@@ -55,6 +72,9 @@ public class ChikkarTest {
 
     @After
     public void tearDown() throws IOException {
+        if (chikkar != null) {
+            chikkar.close();
+        }
         if (systemDict != null) {
             systemDict.close();
         }
@@ -86,6 +106,47 @@ public class ChikkarTest {
         assertThat(chikkar.find("nothing", new int[] { 6 }), empty());
     }
 
+    @Test
+    public void findWithConsumer() {
+        List<String> synonyms = new ArrayList<>();
+        assertThat(chikkar.find(new StringBuilder("開店"), null, s -> synonyms.add(s.toString())), is(5));
+        assertThat(synonyms, containsInAnyOrder("始業", "営業開始", "店開き", "オープン", "open"));
+        synonyms.clear();
+        assertThat(chikkar.find("オープン", new int[] { 6 }, s -> synonyms.add(s.toString())), is(0));
+        assertThat(chikkar.find("nothing", null, s -> synonyms.add(s.toString())), is(0));
+        assertThat(synonyms, empty());
+    }
+
+    @Test
+    public void findInConsumer() {
+        List<String> synonyms = new ArrayList<>();
+        chikkar.find("開店", null, s -> {
+            if (s.toString().equals("始業")) {
+                synonyms.addAll(chikkar.find(s.toString()));
+            }
+        });
+        assertThat(synonyms, containsInAnyOrder("開店", "営業開始", "店開き", "オープン", "open"));
+    }
+
+    @Test
+    public void findAll() {
+        String[] words = new String[] { "開店", "nothing", "開店", "開店" };
+        int[][] groupIds = new int[][] { { 6 }, null, { 6 }, null };
+        List<List<String>> synonyms = chikkar.findAll(words, groupIds);
+        assertThat(synonyms.size(), is(4));
+        assertThat(synonyms.get(0), containsInAnyOrder("始業", "営業開始", "店開き", "オープン", "open"));
+        assertThat(synonyms.get(1), empty());
+        assertThat(synonyms.get(2), is(sameInstance(synonyms.get(0))));
+        assertThat(synonyms.get(3), containsInAnyOrder("始業", "営業開始", "店開き", "オープン", "open"));
+
+        assertThat(chikkar.findAll(words, null).get(1), empty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void findAllWithInvalidGroupIds() {
+        chikkar.findAll(new String[] { "開店" }, new int[0][]);
+    }
+
     @Test
     public void findWithUserDict() {
         chikkar.addDictionary(userDict);
@@ -94,10 +155,237 @@ public class ChikkarTest {
         assertThat(chikkar.find("open"), empty());
     }
 
+    @Test
+    public void findWithFilter() {
+        FlagFilter typical = FlagFilter.variantTypes(0);
+        assertThat(chikkar.find("開店", null, typical), containsInAnyOrder("始業", "営業開始", "店開き", "オープン"));
+        chikkar.addDictionary(userDict);
+        assertThat(chikkar.find("open", null, FlagFilter.ALL), containsInAnyOrder("開放", "開け放す", "開く", "オープン"));
+        assertThat(chikkar.find("open", null, FlagFilter.of(flags -> !flags.isNoun())),
+                containsInAnyOrder("開け放す", "開く"));
+        assertThat(chikkar.find("open", null, (FlagFilter) null), containsInAnyOrder("開放", "オープン"));
+
+        List<String> synonyms = new ArrayList<>();
+        assertThat(chikkar.find("開放", null, FlagFilter.NOUNS.and(typical), s -> synonyms.add(s.toString())), is(1));
+        assertThat(synonyms, contains("オープン"));
+    }
+
+    @Test
+    public void findWithFilterAndCache() {
+        chikkar.enableCache(16, BoundedCache.EvictionPolicy.LRU);
+        List<String> synonyms = chikkar.find("開店");
+        assertThat(chikkar.find("開店", null, FlagFilter.variantTypes(1)), contains("open"));
+        assertThat(chikkar.find("開店", null, FlagFilter.variantTypes(1)), is(not(sameInstance(synonyms))));
+        assertThat(chikkar.find("開店", null, FlagFilter.variantTypes(1)), contains("open"));
+        assertThat(chikkar.getCacheStatistics().get().hitCount(), is(2L));
+    }
+
+    @Test
+    public void findWithCache() {
+        chikkar.enableCache(16, BoundedCache.EvictionPolicy.LRU);
+        List<String> synonyms = chikkar.find("開店");
+        assertThat(synonyms, containsInAnyOrder("始業", "営業開始", "店開き", "オープン", "open"));
+        assertThat(chikkar.find("開店"), is(sameInstance(synonyms)));
+        assertThat(chikkar.find("開店", new int[] { 6 }), is(not(sameInstance(synonyms))));
+        assertThat(chikkar.getCacheStatistics().get().hitCount(), is(1L));
+
+        assertThat(chikkar.find("open"), empty());
+        chikkar.addDictionary(userDict);
+        assertThat(chikkar.find("open"), containsInAnyOrder("開放", "オープン"));
+        chikkar.enableVerb();
+        synonyms = chikkar.find("open");
+        assertThat(synonyms, containsInAnyOrder("開放", "開け放す", "開く", "オープン"));
+        // enabling again keeps the cache
+        chikkar.enableVerb();
+        assertThat(chikkar.find("open"), is(sameInstance(synonyms)));
+    }
+
+    static class RecordingInstrumentation implements Instrumentation {
+        final List<String> events = new ArrayList<>();
+
+        @Override
+        public void found(long nanos) {
+            events.add("found");
+        }
+
+        @Override
+        public void lookedUp(int layer, boolean isHit) {
+            events.add("lookup " + layer + " " + isHit);
+        }
+
+        @Override
+        public void groupDecoded() {
+            events.add("decoded");
+        }
+
+        @Override
+        public void filtered(Filter filter, int count) {
+            events.add(filter + " " + count);
+        }
+
+        @Override
+        public void cacheAccessed(Cache cache, boolean isHit) {
+            events.add(cache + " " + isHit);
+        }
+    }
+
+    @Test
+    public void instrumentation() {
+        RecordingInstrumentation instrumentation = new RecordingInstrumentation();
+        chikkar.setInstrumentation(instrumentation);
+        systemDict.setInstrumentation(instrumentation);
+        userDict.setInstrumentation(instrumentation);
+
+        chikkar.find("open");
+        assertThat(instrumentation.events, contains("AMBIGUITY 1", "AMBIGUITY 1", "lookup 0 true", "found"));
+
+        instrumentation.events.clear();
+        chikkar.addDictionary(userDict);
+        chikkar.find("open");
+        assertThat(instrumentation.events, contains("decoded", "POS 2", "lookup 0 true", "found"));
+
+        instrumentation.events.clear();
+        chikkar.enableCache(16, BoundedCache.EvictionPolicy.LRU);
+        chikkar.find("開店");
+        chikkar.find("開店");
+        assertThat(instrumentation.events, contains("RESULT false", "lookup 0 false", "decoded", "lookup 1 true",
+                "found", "RESULT true", "found"));
+    }
+
     @Test
     public void enableVerb() {
         chikkar.addDictionary(userDict);
         chikkar.enableVerb();
         assertThat(chikkar.find("open"), containsInAnyOrder("開放", "開け放す", "開く", "オープン"));
     }
+
+    @Test
+    public void setDictionaries() {
+        chikkar.setDictionaries(Arrays.asList(systemDict, userDict));
+        assertThat(chikkar.find("open"), containsInAnyOrder("開放", "オープン"));
+        chikkar.setDictionaries(Collections.singletonList(systemDict));
+        assertThat(chikkar.find("open"), empty());
+        assertThat(chikkar.find("開店"), containsInAnyOrder("始業", "営業開始", "店開き", "オープン", "open"));
+    }
+
+    @Test
+    public void closeAddedDictionary() throws IOException {
+        chikkar.addDictionary(userDict);
+        userDict.close();
+        assertThat(chikkar.find("open"), containsInAnyOrder("開放", "オープン"));
+
+        chikkar.setDictionaries(Collections.singletonList(systemDict));
+        try {
+            userDict.retain();
+            throw new AssertionError("the dictionary is not released");
+        } catch (IllegalStateException e) {
+            userDict = null;
+        }
+    }
+
+    @Test
+    public void addClosedDictionary() throws IOException {
+        userDict.close();
+        try {
+            chikkar.setDictionaries(Arrays.asList(systemDict, userDict));
+            throw new AssertionError("the closed dictionary is added");
+        } catch (IllegalStateException e) {
+            userDict = null;
+        }
+        assertThat(chikkar.find("開店"), containsInAnyOrder("始業", "営業開始", "店開き", "オープン", "open"));
+    }
+
+    @Test
+    public void setDictionariesInConsumer() throws IOException, InterruptedException {
+        chikkar.addDictionary(userDict);
+        userDict.close();
+        List<String> synonyms = new ArrayList<>();
+        chikkar.find("open", null, s -> {
+            if (synonyms.isEmpty()) {
+                chikkar.setDictionaries(Collections.singletonList(systemDict));
+                // the dictionary in use is not released yet
+                userDict.retain();
+                try {
+                    userDict.close();
+                } catch (IOException e) {
+                    throw new AssertionError(e);
+                }
+            }
+            synonyms.add(s.toString());
+        });
+        assertThat(synonyms, containsInAnyOrder("開放", "オープン"));
+        assertThat(chikkar.find("open"), empty());
+        // released in the background after the search
+        for (int i = 0; i < 100; i++) {
+            try {
+                userDict.retain();
+            } catch (IllegalStateException e) {
+                userDict = null;
+                return;
+            }
+            userDict.close();
+            Thread.sleep(10);
+        }
+        throw new AssertionError("the dictionary is not released");
+    }
+
+    @Test
+    public void collectAfterFind() throws InterruptedException {
+        Chikkar other = new Chikkar();
+        other.addDictionary(systemDict);
+        assertThat(other.find("開店").size(), is(5));
+        other.close();
+        WeakReference<Chikkar> reference = new WeakReference<>(other);
+        other = null;
+        for (int i = 0; i < 100 && reference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        // the buffers of the current thread do not refer to the instance
+        assertThat(reference.get() == null, is(true));
+    }
+
+    @Test
+    public void setDictionariesWhileFinding() throws Exception {
+        List<String> withUser = Arrays.asList("開放", "オープン");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 2000; i++) {
+                        List<String> synonyms = chikkar.find("open");
+                        if (!synonyms.isEmpty() && !(synonyms.size() == 2 && synonyms.containsAll(withUser))) {
+                            throw new AssertionError(synonyms);
+                        }
+                    }
+                }));
+            }
+            for (int i = 0; i < 500; i++) {
+                chikkar.setDictionaries((i % 2 == 0) ? Arrays.asList(systemDict, userDict)
+                        : Collections.singletonList(systemDict));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+        assertThat(chikkar.find("open"), empty());
+    }
+
+    @Test
+    public void scan() {
+        List<String> spans = new ArrayList<>();
+        String text = "明日開店するopen";
+        assertThat(chikkar.scan(text, SpanScanner.Mode.LEFTMOST_LONGEST,
+                (b, e, g) -> spans.add(text.substring(b, e) + ":" + g)), is(1));
+        assertThat(spans, contains("開店:6"));
+
+        chikkar.addDictionary(userDict);
+        spans.clear();
+        chikkar.scan(text, SpanScanner.Mode.ALL_MATCHES, (b, e, g) -> spans.add(text.substring(b, e) + ":" + g));
+        assertThat(spans, contains("開店:6", "open:1000001"));
+    }
 }
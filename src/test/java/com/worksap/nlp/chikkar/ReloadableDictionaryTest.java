@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2020 Works Applications Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.nlp.chikkar;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.TimeUnit;
+
+import com.worksap.nlp.chikkar.dictionary.Dictionary;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ReloadableDictionaryTest {
+
+    Chikkar chikkar;
+    Path folder;
+    Path path;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Before
+    public void setUp() throws IOException {
+        folder = temporaryFolder.getRoot().toPath();
+        Utils.copyResource(folder, "/system.dic", "/user.dic", "/user2.dic");
+        path = folder.resolve("reloadable.dic");
+        Files.copy(folder.resolve("user.dic"), path);
+
+        chikkar = new Chikkar();
+        try (Dictionary systemDict = new Dictionary(folder.resolve("system.dic").toString(), false)) {
+            chikkar.addDictionary(systemDict);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        chikkar.close();
+    }
+
+    void replace(String name) throws IOException {
+        Path temporary = folder.resolve("reloadable.tmp");
+        Files.copy(folder.resolve(name), temporary);
+        Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @Test
+    public void reload() throws IOException {
+        try (ReloadableDictionary dictionary = new ReloadableDictionary(chikkar, path, true)) {
+            assertThat(chikkar.find("open"), containsInAnyOrder("開放", "オープン"));
+            assertThat(dictionary.reload(), is(false));
+
+            replace("user2.dic");
+            assertThat(dictionary.reload(), is(true));
+            assertThat(chikkar.find("open"), empty());
+            assertThat(dictionary.reload(), is(false));
+
+            replace("user.dic");
+            assertThat(dictionary.reload(), is(true));
+            assertThat(chikkar.find("open"), containsInAnyOrder("開放", "オープン"));
+        }
+    }
+
+    @Test
+    public void reloadInvalidFile() throws IOException {
+        try (ReloadableDictionary dictionary = new ReloadableDictionary(chikkar, path, true)) {
+            Path temporary = folder.resolve("reloadable.tmp");
+            Files.write(temporary, new byte[1024]);
+            Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            try {
+                dictionary.reload();
+                throw new AssertionError("an invalid dictionary is loaded");
+            } catch (IOException e) {
+                assertThat(chikkar.find("open"), containsInAnyOrder("開放", "オープン"));
+            }
+
+            replace("user2.dic");
+            assertThat(dictionary.reload(), is(true));
+            assertThat(chikkar.find("open"), empty());
+        }
+    }
+
+    @Test
+    public void reloadInBackground() throws Exception {
+        try (ReloadableDictionary dictionary = new ReloadableDictionary(chikkar, path, true)) {
+            dictionary.start(10, TimeUnit.MILLISECONDS);
+            replace("user2.dic");
+            for (int i = 0; i < 500 && !chikkar.find("open").isEmpty(); i++) {
+                Thread.sleep(10);
+            }
+            assertThat(chikkar.find("open"), empty());
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2020 Works Applications Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.nlp.chikkar;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.worksap.nlp.chikkar.dictionary.BoundedCache;
+import com.worksap.nlp.chikkar.dictionary.Dictionary;
+import com.worksap.nlp.sudachi.Morpheme;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SynonymFormatterTest {
+
+    static final List<String> PART_OF_SPEECH = Collections.singletonList("名詞");
+
+    /**
+     * A formatter set up without the settings of Sudachi.
+     */
+    static class Formatter extends SynonymFormatter {
+        Formatter(Chikkar chikkar, int cacheSize) {
+            this.chikkar = chikkar;
+            synonymDelimiter = "/";
+            columnDelimiter = "\t";
+            eosString = "EOS";
+            columnCache = (cacheSize > 0) ? new BoundedCache<>(cacheSize, BoundedCache.EvictionPolicy.LRU) : null;
+        }
+    }
+
+    Chikkar chikkar;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Before
+    public void setUp() throws IOException {
+        Utils.copyResource(temporaryFolder.getRoot().toPath(), "/system.dic");
+        chikkar = new Chikkar();
+        String path = Paths.get(temporaryFolder.getRoot().getPath(), "system.dic").toString();
+        try (Dictionary dictionary = new Dictionary(path, false)) {
+            chikkar.addDictionary(dictionary);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        chikkar.close();
+    }
+
+    @Test
+    public void formatMorpheme() {
+        SynonymFormatter formatter = new Formatter(chikkar, 0);
+        String line = formatter.formatMorpheme(morpheme("開店", new int[] { 6 }));
+        assertThat(line.startsWith("開店\t"), is(true));
+        assertThat(line.endsWith("\t開店\t始業/営業開始/店開き/オープン/open"), is(true));
+        assertThat(formatter.formatMorpheme(morpheme("nothing", null)).endsWith("\tnothing\t"), is(true));
+    }
+
+    @Test
+    public void formatMorphemeWithCache() {
+        SynonymFormatter formatter = new Formatter(chikkar, 16);
+        String line = formatter.formatMorpheme(morpheme("開店", new int[] { 6 }));
+        assertThat(formatter.formatMorpheme(morpheme("開店", new int[] { 6 })), is(line));
+        assertThat(formatter.columnCache.statistics().hitCount(), is(1L));
+        assertThat(formatter.formatMorpheme(morpheme("開店", null)), is(line));
+        assertThat(formatter.columnCache.statistics().missCount(), is(2L));
+    }
+
+    @Test
+    public void cachedKeyIsNotModified() {
+        SynonymFormatter formatter = new Formatter(chikkar, 16);
+        int[] groupIds = new int[] { 6 };
+        String line = formatter.formatMorpheme(morpheme("開店", groupIds));
+        groupIds[0] = 100006;
+        assertThat(formatter.formatMorpheme(morpheme("開店", new int[] { 6 })), is(line));
+        assertThat(formatter.columnCache.statistics().hitCount(), is(1L));
+    }
+
+    @Test
+    public void printSentence() {
+        SynonymFormatter formatter = new Formatter(chikkar, 16);
+        List<Morpheme> sentence = Arrays.asList(morpheme("開店", null), morpheme("nothing", null));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (PrintStream output = new PrintStream(bytes, true)) {
+            formatter.printSentence(sentence, output);
+        }
+        String separator = System.lineSeparator();
+        assertThat(new String(bytes.toByteArray(), StandardCharsets.UTF_8),
+                is(formatter.formatMorpheme(sentence.get(0)) + separator + formatter.formatMorpheme(sentence.get(1))
+                        + separator + "EOS" + separator));
+    }
+
+    static Morpheme morpheme(String surface, int[] groupIds) {
+        return (Morpheme) Proxy.newProxyInstance(Morpheme.class.getClassLoader(), new Class<?>[] { Morpheme.class },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                    case "surface":
+                    case "dictionaryForm":
+                    case "normalizedForm":
+                    case "readingForm":
+                        return surface;
+                    case "partOfSpeech":
+                        return PART_OF_SPEECH;
+                    case "getSynonymGroupIds":
+                        return groupIds;
+                    default:
+                        return null;
+                    }
+                });
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2020 Works Applications Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.nlp.chikkar.dictionary;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import org.junit.Test;
+
+public class BoundedCacheTest {
+
+    @Test
+    public void lru() {
+        BoundedCache<Integer, String> cache = new BoundedCache<>(2, BoundedCache.EvictionPolicy.LRU);
+        cache.put(1, "a");
+        cache.put(2, "b");
+        assertThat(cache.get(1), is("a"));
+        cache.put(3, "c");
+        assertThat(cache.get(2), nullValue());
+        assertThat(cache.get(1), is("a"));
+        assertThat(cache.get(3), is("c"));
+        assertThat(cache.size(), is(2));
+    }
+
+    @Test
+    public void lfu() {
+        BoundedCache<Integer, String> cache = new BoundedCache<>(2, BoundedCache.EvictionPolicy.LFU);
+        cache.put(1, "a");
+        cache.put(2, "b");
+        cache.get(1);
+        cache.get(1);
+        cache.get(2);
+        cache.put(3, "c");
+        assertThat(cache.get(2), nullValue());
+        cache.put(4, "d");
+        assertThat(cache.get(3), nullValue());
+        assertThat(cache.get(1), is("a"));
+        assertThat(cache.get(4), is("d"));
+    }
+
+    @Test
+    public void statistics() {
+        BoundedCache<Integer, String> cache = new BoundedCache<>(1, BoundedCache.EvictionPolicy.LRU);
+        assertThat(cache.computeIfAbsent(1, k -> "a"), is("a"));
+        assertThat(cache.computeIfAbsent(1, k -> "b"), is("a"));
+        cache.put(2, "c");
+        CacheStatistics statistics = cache.statistics();
+        assertThat(statistics.hitCount(), is(1L));
+        assertThat(statistics.missCount(), is(1L));
+        assertThat(statistics.evictionCount(), is(1L));
+        assertThat(statistics.size(), is(1));
+        assertThat(statistics.capacity(), is(1));
+    }
+
+    @Test
+    public void segments() {
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(1000, BoundedCache.EvictionPolicy.LFU);
+        for (int i = 0; i < 5000; i++) {
+            cache.put(i, i);
+        }
+        assertThat(cache.size(), is(1000));
+        cache.clear();
+        assertThat(cache.size(), is(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroCapacity() {
+        new BoundedCache<Integer, String>(0, BoundedCache.EvictionPolicy.LRU);
+    }
+}
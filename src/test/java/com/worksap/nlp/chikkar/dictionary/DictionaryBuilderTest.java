@@ -0,0 +1,275 @@
+/*
+ * Copyright (c) 2020 Works Applications Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.nlp.chikkar.dictionary;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import com.worksap.nlp.chikkar.Synonym;
+import com.worksap.nlp.chikkar.SynonymGroup;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class DictionaryBuilderTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    File build(String... lines) throws IOException {
+        return build(1, Arrays.asList(lines));
+    }
+
+    File build(int parallelism, List<String> lines) throws IOException {
+        DictionaryBuilder builder = new DictionaryBuilder();
+        builder.parallelism = parallelism;
+        return build(builder, lines);
+    }
+
+    File build(DictionaryBuilder builder, List<String> lines) throws IOException {
+        File input = temporaryFolder.newFile();
+        Files.write(input.toPath(), lines);
+        File output = temporaryFolder.newFile();
+        DictionaryHeader header = new DictionaryHeader(DictionaryVersion.SYSTEM_DICT_VERSION_2, 0, "");
+        try (FileOutputStream stream = new FileOutputStream(output)) {
+            stream.write(header.toByte());
+            builder.build(input.getPath(), stream);
+        }
+        return output;
+    }
+
+    static List<String> generate(int groups) {
+        List<String> lines = new ArrayList<>();
+        for (int gid = groups; gid > 0; gid--) {
+            for (int i = 0; i < 4; i++) {
+                lines.add(String.format("%06d,%d,%d,%d,0,0,0,(),w%d_%d,,", gid, 1 + i % 2, i % 3, i, gid % 100, i));
+            }
+            lines.add("");
+            if (gid % 10 == 0) {
+                lines.add("");
+            }
+        }
+        return lines;
+    }
+
+    @Test
+    public void buildWithUnsortedGroups() throws IOException {
+        File output = build("000010,1,0,1,0,0,0,(),aaa,,", "000010,1,0,1,0,0,0,(),bbb,,", "",
+                "000003,1,0,1,0,0,0,(),ccc,,", "000003,1,0,1,0,0,0,(),ddd,,", "",
+                "000007,1,0,1,0,0,0,(),eee,,");
+        try (Dictionary dictionary = new Dictionary(output.getPath(), true)) {
+            for (int gid : new int[] { 3, 7, 10 }) {
+                SynonymGroup group = dictionary.getSynonymGroup(gid).get();
+                assertThat(group.getId(), is(gid));
+            }
+            assertThat(dictionary.getSynonymGroup(3).get().getSynonyms().get(1).getHeadword(), is("ddd"));
+            assertThat(dictionary.getSynonymGroup(0).isPresent(), is(false));
+            assertThat(dictionary.getSynonymGroup(5).isPresent(), is(false));
+            assertThat(dictionary.getSynonymGroup(11).isPresent(), is(false));
+        }
+    }
+
+    @Test
+    public void buildWithProjections() throws IOException {
+        File output = build("000001,1,0,1,0,0,0,(),aaa,,", "000001,2,0,1,0,0,0,(),bbb,,",
+                "000001,1,0,1,0,0,0,(),ccc,,", "000001,2,1,1,0,0,0,(),ddd,,");
+        try (Dictionary dictionary = new Dictionary(output.getPath(), true)) {
+            SynonymCursor cursor = new SynonymCursor();
+            List<String> headwords = new ArrayList<>();
+            assertThat(dictionary.gatherHeadwords(1, "aaa", false, cursor, h -> headwords.add(h.toString())), is(1));
+            assertThat(headwords, contains("ccc"));
+
+            headwords.clear();
+            assertThat(dictionary.gatherHeadwords(1, "bbb", true, cursor, h -> headwords.add(h.toString())), is(3));
+            assertThat(headwords, contains("aaa", "ccc", "ddd"));
+
+            headwords.clear();
+            assertThat(dictionary.gatherHeadwords(1, "ddd", true, cursor, h -> headwords.add(h.toString())), is(0));
+            assertThat(dictionary.gatherHeadwords(2, "aaa", true, cursor, h -> headwords.add(h.toString())), is(0));
+            assertThat(headwords.isEmpty(), is(true));
+
+            assertThat(dictionary.getSynonyms(1, cursor), is(true));
+            assertThat(cursor.seek("ccc"), is(true));
+            assertThat(cursor.index(), is(2));
+            assertThat(cursor.next(), is(true));
+            assertThat(cursor.headword().toString(), is("ddd"));
+            assertThat(cursor.hasAmbiguity(), is(true));
+            assertThat(cursor.seek("eee"), is(false));
+        }
+    }
+
+    @Test
+    public void buildWithUtf8Strings() throws IOException {
+        File output = build("000001,1,0,1,0,0,0,(),\u30b9\u30af\u30ea\u30fc\u30f3,,",
+                "000001,1,0,1,0,0,0,(),\ud842\udfb7\u91ce\u5bb6,,", "000001,1,0,1,0,0,0,(),\u00e9cran,,", "");
+        try (Dictionary dictionary = new Dictionary(output.getPath(), true)) {
+            SynonymCursor cursor = new SynonymCursor();
+            assertThat(dictionary.getSynonyms(1, cursor), is(true));
+            assertThat(cursor.seek("\ud842\udfb7\u91ce\u5bb6"), is(true));
+            assertThat(cursor.headword().length(), is(4));
+            assertThat(cursor.headword().charAt(1), is('\udfb7'));
+            assertThat(cursor.headwordEquals("\ud842\u91ce\u5bb6"), is(false));
+            assertThat(cursor.headwordEquals("\ud842\udfb7\u91ce"), is(false));
+            assertThat(cursor.next(), is(true));
+            assertThat(cursor.headword().toString(), is("\u00e9cran"));
+            assertThat(cursor.headwordEquals("ecran"), is(false));
+            assertThat(cursor.headword().appendTo(new StringBuilder("<")).toString(), is("<\u00e9cran"));
+
+            List<String> headwords = new ArrayList<>();
+            dictionary.gatherHeadwords(1, "\u00e9cran", false, cursor, h -> headwords.add(h.toString()));
+            assertThat(headwords, contains("\u30b9\u30af\u30ea\u30fc\u30f3", "\ud842\udfb7\u91ce\u5bb6"));
+        }
+    }
+
+    @Test
+    public void buildWithSharedStrings() throws IOException {
+        DictionaryBuilder builder = new DictionaryBuilder();
+        List<String> lines = generate(200);
+        File output = build(builder, lines);
+        // 100 distinct headwords for each of the 3 kept positions, and the empty
+        // category
+        assertThat(builder.stringOffsets.size(), is(301));
+        try (Dictionary dictionary = new Dictionary(output.getPath(), true)) {
+            assertThat(dictionary.lookup("w7_3", null), is(new int[] { 107, 7 }));
+            assertThat(dictionary.getSynonymGroup(107).get().getSynonyms().get(2).getHeadword(), is("w7_3"));
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void gatherHeadwordsWithoutWord() throws IOException {
+        File output = build("000001,1,0,1,0,0,0,(),aaa,,", "000001,1,0,1,0,0,0,(),bbb,,");
+        try (Dictionary dictionary = new Dictionary(output.getPath(), true)) {
+            dictionary.gatherHeadwords(1, "ccc", false, new SynonymCursor(), h -> {
+            });
+        }
+    }
+
+    @Test
+    public void buildInParallel() throws IOException {
+        List<String> lines = generate(2000);
+        byte[] expected = Files.readAllBytes(build(1, lines).toPath());
+        assertThat(Files.readAllBytes(build(4, lines).toPath()), is(expected));
+    }
+
+    @Test
+    public void buildInParallelWithErrors() throws IOException {
+        List<String> lines = generate(2000);
+        lines.set(5000, lines.get(5000).substring(0, 20));
+        lines.set(8000, lines.get(8000).replace(",0,0,0,", ",9,0,0,"));
+        List<String> messages = new ArrayList<>();
+        Logger logger = Logger.getLogger(DictionaryBuilder.class.getName());
+        Handler handler = new Handler() {
+            @Override
+            public void publish(LogRecord record) {
+                messages.add(record.getMessage());
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        logger.addHandler(handler);
+        try {
+            build(4, lines);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("invalid format"));
+        } finally {
+            logger.removeHandler(handler);
+        }
+        assertThat(messages.get(messages.size() - 1), containsString("at line 5001"));
+    }
+
+    StreamingDictionaryBuilder streamingBuilder() {
+        StreamingDictionaryBuilder builder = new StreamingDictionaryBuilder();
+        builder.tempDirectory = temporaryFolder.getRoot().toPath();
+        builder.runSize = 1000;
+        return builder;
+    }
+
+    @Test
+    public void buildWithStreaming() throws IOException {
+        List<String> lines = generate(2000);
+        File expected = build(1, lines);
+        File actual = build(streamingBuilder(), lines);
+        assertThat(temporaryFolder.getRoot().list().length, is(4));
+        try (Dictionary expectedDictionary = new Dictionary(expected.getPath(), true);
+                Dictionary actualDictionary = new Dictionary(actual.getPath(), true)) {
+            for (int gid = 1; gid <= 2000; gid++) {
+                List<Synonym> synonyms = actualDictionary.getSynonymGroup(gid).get().getSynonyms();
+                assertThat(synonyms.size(), is(expectedDictionary.getSynonymGroup(gid).get().getSynonyms().size()));
+                for (Synonym synonym : synonyms) {
+                    String headword = synonym.getHeadword();
+                    assertThat(actualDictionary.lookup(headword, null), is(expectedDictionary.lookup(headword, null)));
+                }
+            }
+        }
+
+        Collections.reverse(lines);
+        lines.add("");
+        assertThat(Files.readAllBytes(build(streamingBuilder(), lines).toPath()),
+                is(Files.readAllBytes(build(1, lines).toPath())));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void buildWithStreamingAndDuplicatedGroups() throws IOException {
+        build(streamingBuilder(), Arrays.asList("000010,1,0,1,0,0,0,(),aaa,,", "", "000010,1,0,1,0,0,0,(),bbb,,"));
+    }
+
+    @Test
+    public void buildLargeGroup() throws IOException {
+        List<String> lines = new ArrayList<>();
+        char[] chars = new char[200];
+        for (int i = 0; i < 3000; i++) {
+            Arrays.fill(chars, (char) ('a' + i % 26));
+            lines.add("000001,1,0,1,0,0,0,()," + new String(chars) + i + ",,");
+        }
+        for (File output : new File[] { build(1, lines), build(streamingBuilder(), lines) }) {
+            try (Dictionary dictionary = new Dictionary(output.getPath(), true)) {
+                List<Synonym> synonyms = dictionary.getSynonymGroup(1).get().getSynonyms();
+                assertThat(synonyms.size(), is(3000));
+                assertThat(synonyms.get(2999).getHeadword().length(), is(204));
+                assertThat(dictionary.lookup(synonyms.get(2999).getHeadword(), null), is(new int[] { 1 }));
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void buildWithDuplicatedGroups() throws IOException {
+        build("000010,1,0,1,0,0,0,(),aaa,,", "", "000010,1,0,1,0,0,0,(),bbb,,");
+    }
+}
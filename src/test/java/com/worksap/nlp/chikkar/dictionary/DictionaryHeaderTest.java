@@ -38,7 +38,7 @@ public class DictionaryHeaderTest {
 
     @Test
     public void getVersion() {
-        assertThat(header.getVersion(), is(DictionaryVersion.SYSTEM_DICT_VERSION_1));
+        assertThat(header.getVersion(), is(DictionaryVersion.SYSTEM_DICT_VERSION_2));
     }
 
     @Test
@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2020 Works Applications Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.nlp.chikkar.dictionary;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import com.worksap.nlp.chikkar.Chikkar;
+import com.worksap.nlp.chikkar.Utils;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class DictionaryMergerTest {
+
+    List<Dictionary> dictionaries = new ArrayList<>();
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Before
+    public void setUp() throws IOException {
+        Utils.copyResource(temporaryFolder.getRoot().toPath(), "/system.dic", "/user.dic", "/user2.dic");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        for (Dictionary dictionary : dictionaries) {
+            dictionary.close();
+        }
+    }
+
+    Dictionary open(String name, boolean enableTrie) throws IOException {
+        Dictionary dictionary = new Dictionary(Paths.get(temporaryFolder.getRoot().getPath(), name).toString(),
+                enableTrie);
+        dictionaries.add(dictionary);
+        return dictionary;
+    }
+
+    Dictionary merge(DictionaryMerger merger) throws IOException {
+        DictionaryHeader header = new DictionaryHeader(DictionaryVersion.SYSTEM_DICT_VERSION_2, 0, "merged");
+        try (FileOutputStream output = new FileOutputStream(
+                Paths.get(temporaryFolder.getRoot().getPath(), "merged.dic").toFile())) {
+            output.write(header.toByte());
+            merger.merge(output);
+        }
+        return open("merged.dic", true);
+    }
+
+    static Set<String> headwords(Dictionary dictionary) {
+        Set<String> headwords = new TreeSet<>();
+        SynonymCursor cursor = new SynonymCursor();
+        SynonymGroupList groupList = dictionary.getGroupList();
+        for (int i = 0; i < groupList.size(); i++) {
+            dictionary.getSynonyms(groupList.groupIdAt(i), cursor);
+            while (cursor.next()) {
+                headwords.add(cursor.headword().toString());
+            }
+        }
+        return headwords;
+    }
+
+    static String find(Chikkar chikkar, String word, int[] groupIds) {
+        try {
+            return new TreeSet<>(chikkar.find(word, groupIds)).toString();
+        } catch (IllegalStateException e) {
+            return e.getClass().getName();
+        }
+    }
+
+    void assertSameResults(Chikkar expected, Chikkar actual, Set<String> words, Dictionary groupIdsDictionary) {
+        for (String word : words) {
+            assertThat(word, find(actual, word, null), is(find(expected, word, null)));
+            assertThat(word, find(actual, word, new int[0]), is(find(expected, word, new int[0])));
+            SynonymGroupList groupList = groupIdsDictionary.getGroupList();
+            for (int i = 0; i < groupList.size(); i++) {
+                int[] groupIds = new int[] { groupList.groupIdAt(i) };
+                assertThat(word, find(actual, word, groupIds), is(find(expected, word, groupIds)));
+            }
+        }
+    }
+
+    @Test
+    public void mergeWithSystemDictionary() throws IOException {
+        Dictionary system = open("system.dic", false);
+        Dictionary user = open("user.dic", true);
+        Dictionary user2 = open("user2.dic", true);
+        Chikkar expected = new Chikkar();
+        expected.addDictionary(system);
+        expected.addDictionary(user);
+        expected.addDictionary(user2);
+
+        DictionaryMerger merger = new DictionaryMerger();
+        merger.add(system, false);
+        merger.add(user, true);
+        merger.add(user2, true);
+        Dictionary merged = merge(merger);
+        assertThat(merged.isMerged(), is(true));
+        assertThat(merged.lookupLexeme(6, 5, i -> {
+        }), is(2));
+        Chikkar actual = new Chikkar();
+        actual.addDictionary(merged);
+
+        Set<String> words = headwords(system);
+        words.addAll(headwords(user));
+        words.addAll(headwords(user2));
+        words.add("nothing");
+        assertSameResults(expected, actual, words, system);
+
+        expected.enableVerb();
+        actual.enableVerb();
+        assertSameResults(expected, actual, words, system);
+    }
+
+    @Test
+    public void mergeUserDictionaries() throws IOException {
+        Dictionary system = open("system.dic", true);
+        Dictionary user = open("user.dic", true);
+        Chikkar expected = new Chikkar();
+        expected.addDictionary(user);
+        expected.addDictionary(system);
+
+        DictionaryMerger merger = new DictionaryMerger();
+        merger.add(user, true);
+        merger.add(system, true);
+        Chikkar actual = new Chikkar();
+        actual.addDictionary(merge(merger));
+
+        Set<String> words = headwords(system);
+        words.addAll(headwords(user));
+        assertSameResults(expected, actual, words, user);
+    }
+
+    @Test
+    public void mergeWithSystemDictionaryOnTop() throws IOException {
+        Dictionary system = open("system.dic", false);
+        Dictionary user = open("user.dic", true);
+        Chikkar expected = new Chikkar();
+        expected.addDictionary(user);
+        expected.addDictionary(system);
+
+        DictionaryMerger merger = new DictionaryMerger();
+        merger.add(user, true);
+        merger.add(system, false);
+        Chikkar actual = new Chikkar();
+        actual.addDictionary(merge(merger));
+
+        Set<String> words = headwords(system);
+        words.addAll(headwords(user));
+        assertSameResults(expected, actual, words, system);
+    }
+
+    @Test
+    public void lookupRenumberedGroupId() throws IOException {
+        Dictionary system = open("system.dic", false);
+        Dictionary user = open("user.dic", true);
+        Chikkar expected = new Chikkar();
+        expected.addDictionary(system);
+        expected.addDictionary(user);
+
+        DictionaryMerger merger = new DictionaryMerger();
+        merger.add(system, false);
+        merger.add(user, true);
+        Dictionary merged = merge(merger);
+        Chikkar actual = new Chikkar();
+        actual.addDictionary(merged);
+
+        SynonymCursor cursor = new SynonymCursor();
+        SynonymGroupList groupList = merged.getGroupList();
+        int renumbered = 0;
+        for (int i = 0; i < groupList.size(); i++) {
+            int groupId = groupList.groupIdAt(i);
+            if (system.getSynonyms(groupId, cursor)) {
+                continue;
+            }
+            renumbered++;
+            int[] groupIds = new int[] { groupId };
+            assertThat(merged.lookupPostings("未知語", groupIds, (g, m, a) -> {
+            }), is(0));
+            assertThat(find(actual, "未知語", groupIds), is(find(expected, "未知語", groupIds)));
+        }
+        assertThat(renumbered > 0, is(true));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void mergeMergedDictionary() throws IOException {
+        DictionaryMerger merger = new DictionaryMerger();
+        merger.add(open("user.dic", true), true);
+        merger.add(open("user2.dic", true), true);
+        Dictionary merged = merge(merger);
+
+        new DictionaryMerger().add(merged, true);
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2020 Works Applications Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.nlp.chikkar.dictionary;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class DictionaryRegistryTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    DictionaryRegistry registry;
+    Path path;
+
+    @Before
+    public void setUp() throws IOException {
+        registry = new DictionaryRegistry();
+        path = temporaryFolder.getRoot().toPath().resolve("system.dic");
+        copyResource("/system.dic", path);
+    }
+
+    static void copyResource(String name, Path path) throws IOException {
+        try (InputStream input = DictionaryRegistryTest.class.getResourceAsStream(name)) {
+            Files.copy(input, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    @Test
+    public void acquire() throws IOException {
+        Dictionary first = registry.acquire(path.toString(), false);
+        Dictionary second = registry.acquire(path.getParent().resolve(".").resolve("system.dic").toString(), false);
+        assertThat(second, is(sameInstance(first)));
+        assertThat(registry.size(), is(1));
+
+        Dictionary withTrie = registry.acquire(path.toString(), true);
+        assertThat(withTrie, is(not(sameInstance(first))));
+        assertThat(registry.size(), is(2));
+        withTrie.close();
+        assertThat(registry.size(), is(1));
+
+        first.close();
+        assertThat(second.getSynonymGroup(6).isPresent(), is(true));
+        second.close();
+        assertThat(registry.size(), is(0));
+
+        try (Dictionary third = registry.acquire(path.toString(), false)) {
+            assertThat(third, is(not(sameInstance(first))));
+            assertThat(third.getSynonymGroup(6).isPresent(), is(true));
+        }
+        assertThat(registry.size(), is(0));
+    }
+
+    @Test
+    public void acquireWithCache() throws IOException {
+        try (Dictionary first = registry.acquire(path.toString(), false, 16, BoundedCache.EvictionPolicy.LRU);
+                Dictionary second = registry.acquire(path.toString(), false, 16, BoundedCache.EvictionPolicy.LRU);
+                Dictionary third = registry.acquire(path.toString(), false)) {
+            assertThat(second, is(sameInstance(first)));
+            assertThat(third, is(not(sameInstance(first))));
+            first.getSynonymGroup(6);
+            second.getSynonymGroup(6);
+            assertThat(first.getCacheStatistics().get().hitCount(), is(1L));
+        }
+    }
+
+    @Test
+    public void acquireReplacedFile() throws IOException {
+        try (Dictionary first = registry.acquire(path.toString(), false)) {
+            Path replacement = temporaryFolder.getRoot().toPath().resolve("next.dic");
+            copyResource("/user.dic", replacement);
+            Files.move(replacement, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            try (Dictionary second = registry.acquire(path.toString(), false)) {
+                assertThat(second, is(not(sameInstance(first))));
+                assertThat(registry.size(), is(2));
+            }
+        }
+        assertThat(registry.size(), is(0));
+    }
+
+    @Test
+    public void acquireConcurrently() throws IOException, InterruptedException, ExecutionException {
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Dictionary>> futures = new ArrayList<>();
+        try {
+            Callable<Dictionary> task = () -> {
+                start.await();
+                return registry.acquire(path.toString(), false);
+            };
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(task));
+            }
+            start.countDown();
+            Dictionary first = futures.get(0).get();
+            for (Future<Dictionary> future : futures) {
+                assertThat(future.get(), is(sameInstance(first)));
+            }
+            assertThat(registry.size(), is(1));
+        } finally {
+            executor.shutdown();
+        }
+
+        for (Future<Dictionary> future : futures) {
+            assertThat(future.get().getSynonymGroup(6).isPresent(), is(true));
+            future.get().close();
+        }
+        assertThat(registry.size(), is(0));
+    }
+}
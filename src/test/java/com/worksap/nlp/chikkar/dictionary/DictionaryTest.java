@@ -17,12 +17,22 @@
 package com.worksap.nlp.chikkar.dictionary;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 
+import com.worksap.nlp.chikkar.Synonym;
 import com.worksap.nlp.chikkar.SynonymGroup;
 import com.worksap.nlp.chikkar.Utils;
 
@@ -68,6 +78,19 @@ public class DictionaryTest {
         assertThat(dictGid.lookup("open", new int[] { 4 }), is(new int[] { 4 }));
     }
 
+    @Test
+    public void lookupWithConsumer() {
+        List<Integer> ids = new ArrayList<>();
+        assertThat(dict.lookup("open", new int[] { 4 }, ids::add), is(2));
+        assertThat(ids, contains(6, 100006));
+        ids.clear();
+        assertThat(dictGid.lookup("open", new int[] { 4 }, ids::add), is(1));
+        assertThat(ids, contains(4));
+        ids.clear();
+        assertThat(dictGid.lookup("open", null, ids::add), is(2));
+        assertThat(ids, contains(6, 100006));
+    }
+
     @Test
     public void getSynonyms() {
         Optional<SynonymGroup> r = dict.getSynonymGroup(6);
@@ -79,6 +102,194 @@ public class DictionaryTest {
         assertThat(r.isPresent(), is(false));
     }
 
+    @Test
+    public void getSynonymsWithCache() throws IOException {
+        String path = Paths.get(temporaryFolder.getRoot().getPath(), "system.dic").toString();
+        try (Dictionary cached = new Dictionary(path, true, 16, BoundedCache.EvictionPolicy.LRU)) {
+            SynonymGroup group = cached.getSynonymGroup(6).get();
+            assertThat(cached.getSynonymGroup(6).get(), is(sameInstance(group)));
+            assertThat(cached.getSynonymGroup(200).isPresent(), is(false));
+
+            CacheStatistics statistics = cached.getCacheStatistics().get();
+            assertThat(statistics.hitCount(), is(1L));
+            assertThat(statistics.missCount(), is(2L));
+        }
+        assertThat(dict.getCacheStatistics().isPresent(), is(false));
+    }
+
+    @Test
+    public void cachedSynonymsAreNotModified() throws IOException {
+        String path = Paths.get(temporaryFolder.getRoot().getPath(), "system.dic").toString();
+        try (Dictionary cached = new Dictionary(path, true, 16, BoundedCache.EvictionPolicy.LRU)) {
+            Synonym synonym = cached.getSynonymGroup(6).get().getSynonyms().get(0);
+            int[] lexemeIds = synonym.getLexemeIds();
+            int expected = lexemeIds[0];
+            lexemeIds[0] = -1;
+            assertThat(cached.getSynonymGroup(6).get().getSynonyms().get(0).getLexemeIds()[0], is(expected));
+        }
+    }
+
+    @Test
+    public void getSynonymsWithCursor() {
+        SynonymCursor cursor = new SynonymCursor();
+        assertThat(dict.getSynonyms(6, cursor), is(true));
+        assertThat(cursor.groupId(), is(6));
+        assertThat(cursor.size(), is(6));
+
+        SynonymGroup group = dict.getSynonymGroup(6).get();
+        for (Synonym synonym : group.getSynonyms()) {
+            assertThat(cursor.next(), is(true));
+            assertThat(cursor.headword().toString(), is(synonym.getHeadword()));
+            assertThat(cursor.headwordEquals(synonym.getHeadword()), is(true));
+            assertThat(cursor.hasAmbiguity(), is(synonym.hasAmbiguity()));
+            assertThat(cursor.isNoun(), is(synonym.isNoun()));
+            assertThat(cursor.lexemeIdCount(), is(synonym.getLexemeIds().length));
+            assertThat(cursor.category().toString(), is(synonym.getCategory()));
+        }
+        assertThat(cursor.next(), is(false));
+
+        cursor.rewind();
+        assertThat(cursor.next(), is(true));
+        assertThat(cursor.index(), is(0));
+        assertThat(cursor.headword().length(), is(2));
+        assertThat(cursor.headword().charAt(1), is('店'));
+        assertThat(cursor.headword().appendTo(new StringBuilder("x")).toString(), is("x開店"));
+
+        assertThat(dict.getSynonyms(200, cursor), is(false));
+    }
+
+    @Test
+    public void getSynonymsWithFilter() {
+        SynonymGroup group = dict.getSynonymGroup(6, FlagFilter.variantTypes(1)).get();
+        assertThat(group.getId(), is(6));
+        assertThat(group.getSynonyms().size(), is(1));
+        assertThat(group.getSynonyms().get(0).getHeadword(), is("open"));
+        assertThat(dict.getSynonymGroup(6, FlagFilter.ALL).get().getSynonyms().size(), is(6));
+        assertThat(dict.getSynonymGroup(200, FlagFilter.NOUNS).isPresent(), is(false));
+
+        SynonymCursor cursor = new SynonymCursor();
+        dict.getSynonyms(6, cursor);
+        FlagFilter typical = FlagFilter.variantTypes(0);
+        List<String> headwords = new ArrayList<>();
+        while (cursor.next(typical)) {
+            headwords.add(cursor.headword().toString());
+        }
+        assertThat(headwords, contains("開店", "始業", "営業開始", "店開き", "オープン"));
+    }
+
+    @Test
+    public void lookupLexeme() {
+        assertThat(dict.hasLexemeIndex(), is(true));
+        List<Integer> indices = new ArrayList<>();
+        assertThat(dict.lookupLexeme(6, 5, indices::add), is(2));
+        assertThat(indices, contains(4, 5));
+        indices.clear();
+        assertThat(dict.lookupLexeme(6, 1, indices::add), is(1));
+        assertThat(indices, contains(0));
+        assertThat(dict.lookupLexeme(6, 9, indices::add), is(0));
+        assertThat(dict.lookupLexeme(200, 1, indices::add), is(0));
+    }
+
+    @Test
+    public void moveCursor() {
+        SynonymCursor cursor = new SynonymCursor();
+        dict.getSynonyms(6, cursor);
+        cursor.moveTo(5);
+        assertThat(cursor.index(), is(5));
+        assertThat(cursor.headword().toString(), is("open"));
+        cursor.moveTo(1);
+        assertThat(cursor.headword().toString(), is("始業"));
+        assertThat(cursor.next(), is(true));
+        assertThat(cursor.headword().toString(), is("営業開始"));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void moveCursorOutOfGroup() {
+        SynonymCursor cursor = new SynonymCursor();
+        dict.getSynonyms(6, cursor);
+        cursor.moveTo(6);
+    }
+
+    @Test
+    public void warmUp() throws IOException {
+        String path = Paths.get(temporaryFolder.getRoot().getPath(), "system.dic").toString();
+        LoadPolicy policy = LoadPolicy.of(LoadPolicy.Preload.INDEX).withHotWords(Arrays.asList("開店", "nothing"))
+                .withHotGroupIds(5, 200);
+        try (Dictionary warmed = new Dictionary(path, true, 16, BoundedCache.EvictionPolicy.LRU, policy)) {
+            assertThat(warmed.getCacheStatistics().get().size(), is(3));
+            assertThat(warmed.getSynonymGroup(6).get().getSynonyms().size(), is(6));
+            assertThat(warmed.getCacheStatistics().get().hitCount(), is(1L));
+            assertThat(warmed.getWarmUpNanos() > 0, is(true));
+        }
+        assertThat(dict.getWarmUpNanos(), is(0L));
+
+        List<Long> times = new ArrayList<>();
+        dict.setInstrumentation(new Instrumentation() {
+            @Override
+            public boolean isEnabled() {
+                return true;
+            }
+
+            @Override
+            public void dictionaryWarmedUp(String fileName, long nanos) {
+                times.add(nanos);
+            }
+        });
+        assertThat(dict.warmUp(LoadPolicy.LAZY), is(0L));
+        long nanos = dict.warmUp(LoadPolicy.of(LoadPolicy.Preload.ALL).withHotGroupIds(6));
+        assertThat(times, contains(nanos));
+        assertThat(dict.lookup("open", null), is(new int[] { 6, 100006 }));
+    }
+
+    @Test
+    public void warmUpOnHeap() throws IOException {
+        String path = Paths.get(temporaryFolder.getRoot().getPath(), "system.dic").toString();
+        try (Dictionary heap = new Dictionary(path, true, LoadPolicy.of(LoadPolicy.Preload.HEAP))) {
+            assertThat(dict.getHeapSize(), is(0L));
+            assertThat(heap.getHeapSize() > 0, is(true));
+            assertThat(heap.getMappedSize(), is(dict.getMappedSize()));
+
+            SynonymGroupList groupList = dict.getGroupList();
+            for (int i = 0; i < groupList.size(); i++) {
+                int groupId = groupList.groupIdAt(i);
+                List<Synonym> expected = dict.getSynonymGroup(groupId).get().getSynonyms();
+                List<Synonym> actual = heap.getSynonymGroup(groupId).get().getSynonyms();
+                assertThat(actual.size(), is(expected.size()));
+                for (int j = 0; j < expected.size(); j++) {
+                    assertThat(actual.get(j).getHeadword(), is(expected.get(j).getHeadword()));
+                    assertThat(actual.get(j).getLexemeIds(), is(expected.get(j).getLexemeIds()));
+                    assertThat(actual.get(j).getCategory(), is(expected.get(j).getCategory()));
+                    assertThat(actual.get(j).isNoun(), is(expected.get(j).isNoun()));
+                    assertThat(actual.get(j).hasAmbiguity(), is(expected.get(j).hasAmbiguity()));
+                }
+            }
+            assertThat(heap.getSynonymGroup(200).isPresent(), is(false));
+            assertThat(heap.getSynonymGroup(6, FlagFilter.variantTypes(1)).get().getSynonyms().size(), is(1));
+
+            SynonymCursor cursor = new SynonymCursor();
+            List<String> headwords = new ArrayList<>();
+            assertThat(heap.gatherHeadwords(6, "開店", false, cursor, h -> headwords.add(h.toString())), is(5));
+            assertThat(headwords, contains("始業", "営業開始", "店開き", "オープン", "open"));
+            assertThat(heap.gatherHeadwords(6, "オープン", false, cursor, h -> headwords.add(h.toString())), is(0));
+            assertThat(heap.gatherHeadwords(200, "開店", false, cursor, h -> headwords.add(h.toString())), is(0));
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void readBrokenDictionary() throws IOException {
+        Path path = Paths.get(temporaryFolder.getRoot().getPath(), "system.dic");
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(path)).order(ByteOrder.LITTLE_ENDIAN);
+        int directory = new DictionaryHeader(bytes, 0).storageSize();
+        for (int i = 0; i < bytes.getInt(directory); i++) {
+            if (bytes.getInt(directory + 4 + 12 * i) == SectionDirectory.LEXEME_INDEX) {
+                bytes.putInt(directory + 12 + 12 * i, 0);
+            }
+        }
+        Path broken = Paths.get(temporaryFolder.getRoot().getPath(), "broken.dic");
+        Files.write(broken, bytes.array());
+        new Dictionary(broken.toString(), true).close();
+    }
+
     @Test
     public void getDictionaryHeader() {
         assertThat(dict.getDictionaryHeader().isDictionary(), is(true));
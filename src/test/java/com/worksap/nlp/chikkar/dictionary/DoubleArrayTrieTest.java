@@ -17,6 +17,8 @@
 package com.worksap.nlp.chikkar.dictionary;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.is;
 
 import java.io.IOException;
@@ -38,7 +40,9 @@ public class DoubleArrayTrieTest {
     public void setUp() throws IOException {
         ByteBuffer bytes = DictionaryReader.read("/system.dic");
         DictionaryHeader header = new DictionaryHeader(bytes, 0);
-        trie = new DoubleArrayTrie(bytes, header.storageSize());
+        SectionDirectory sections = new SectionDirectory(bytes, header.storageSize());
+        trie = new DoubleArrayTrie(sections.section(SectionDirectory.TRIE), sections.section(SectionDirectory.ID_TABLE));
+        assertThat(bytes.position(), is(0));
     }
 
     @Test
@@ -51,15 +55,92 @@ public class DoubleArrayTrieTest {
         assertThat(r.get(1)[1], is(4));
     }
 
+    @Test
+    public void commonPrefixSearchWithCursor() {
+        DoubleArrayTrie.PrefixCursor cursor = trie.newPrefixCursor();
+        byte[] text = "_opener".getBytes(StandardCharsets.UTF_8);
+        cursor.reset(text, 1);
+        assertThat(cursor.advance(), is(true));
+        assertThat(cursor.groupId(), is(6));
+        assertThat(cursor.matchLength(), is(4));
+        assertThat(cursor.memberIndex(), is(5));
+        assertThat(cursor.hasAmbiguity(), is(true));
+        assertThat(cursor.advance(), is(true));
+        assertThat(cursor.groupId(), is(100006));
+        assertThat(cursor.memberIndex(), is(2));
+        assertThat(cursor.advance(), is(false));
+
+        cursor.reset(text, 1, 4);
+        assertThat(cursor.advance(), is(false));
+        cursor.reset(text, 0);
+        assertThat(cursor.advance(), is(false));
+
+        text = "開店する".getBytes(StandardCharsets.UTF_8);
+        cursor.reset(text, 0);
+        assertThat(cursor.advance(), is(true));
+        assertThat(cursor.groupId(), is(6));
+        assertThat(cursor.matchLength(), is(6));
+        assertThat(cursor.memberIndex(), is(0));
+        assertThat(cursor.hasAmbiguity(), is(false));
+        assertThat(cursor.advance(), is(false));
+    }
+
+    @Test
+    public void commonPrefixSearchWithoutResults() {
+        assertThat(trie.lookup("nothing".getBytes(StandardCharsets.UTF_8), 0).hasNext(), is(false));
+        assertThat(trie.lookup(OPEN, 4).hasNext(), is(false));
+    }
+
     @Test
     public void exactMatch() {
         assertThat(trie.lookup(OPEN), is(new int[] { 6, 100006 }));
         assertThat(trie.lookup("nothing".getBytes(StandardCharsets.UTF_8)).length, is(0));
     }
 
+    @Test
+    public void exactMatchWithCharSequence() {
+        List<Integer> ids = new ArrayList<>();
+        assertThat(trie.lookup(new StringBuilder("open"), ids::add), is(2));
+        assertThat(ids, contains(6, 100006));
+        ids.clear();
+        assertThat(trie.lookup("開店", ids::add), is(1));
+        assertThat(ids, contains(6));
+        ids.clear();
+        assertThat(trie.lookup("ope", ids::add), is(0));
+        assertThat(trie.lookup("opens", ids::add), is(0));
+        assertThat(trie.lookup("", ids::add), is(0));
+        assertThat(trie.lookup("\uD842\uDFB7", ids::add), is(0));
+        assertThat(ids, is(empty()));
+    }
+
+    @Test
+    public void exactMatchWithPostings() {
+        List<int[]> postings = new ArrayList<>();
+        assertThat(trie.lookupPostings("open", (g, m, a) -> postings.add(new int[] { g, m, a ? 1 : 0 })), is(2));
+        assertThat(postings.get(0), is(new int[] { 6, 5, 1 }));
+        assertThat(postings.get(1), is(new int[] { 100006, 2, 1 }));
+        postings.clear();
+        assertThat(trie.lookupPostings("開店", (g, m, a) -> postings.add(new int[] { g, m, a ? 1 : 0 })), is(1));
+        assertThat(postings.get(0), is(new int[] { 6, 0, 0 }));
+        assertThat(trie.lookupPostings("ope", (g, m, a) -> postings.add(null)), is(0));
+    }
+
+    @Test
+    public void readFirstVersion() throws IOException {
+        ByteBuffer bytes = DictionaryReader.read("/v1/system.dic");
+        DictionaryHeader header = new DictionaryHeader(bytes, 0);
+        assertThat(header.getVersion(), is(DictionaryVersion.SYSTEM_DICT_VERSION_1));
+        DoubleArrayTrie legacy = new DoubleArrayTrie(bytes, header.storageSize());
+        assertThat(legacy.lookup(OPEN), is(new int[] { 6, 100006 }));
+        List<int[]> postings = new ArrayList<>();
+        assertThat(legacy.lookupPostings("open", (g, m, a) -> postings.add(new int[] { g, m, a ? 1 : 0 })), is(2));
+        assertThat(postings.get(0), is(new int[] { 6, -1, 0 }));
+        assertThat(postings.get(1), is(new int[] { 100006, -1, 0 }));
+    }
+
     @Test
     public void storageSize() {
-        assertThat(trie.storageSize(), is(1095));
+        assertThat(trie.storageSize(), is(1139));
     }
 
     static <E> List<E> iteratorToList(Iterator<E> iterator) {
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2020 Works Applications Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.nlp.chikkar.dictionary;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+import org.junit.Test;
+
+public class FlagFilterTest {
+
+    @Test
+    public void test() {
+        FlagFilter filter = FlagFilter.acronymTypes(0).and(FlagFilter.variantTypes(0, 1));
+        assertThat(filter.test(new Flags(false, true, 0, 0, 1)), is(true));
+        assertThat(filter.test(new Flags(true, false, 3, 0, 0)), is(true));
+        assertThat(filter.test(new Flags(false, true, 0, 1, 0)), is(false));
+        assertThat(filter.test(new Flags(false, true, 0, 0, 2)), is(false));
+        assertThat(FlagFilter.formTypes(2).test(new Flags(false, true, 2, 0, 0).encode()), is(true));
+        assertThat(FlagFilter.formTypes(2).test(new Flags(false, true, 1, 0, 0).encode()), is(false));
+    }
+
+    @Test
+    public void isNounOnly() {
+        assertThat(FlagFilter.NOUNS.isNounOnly(), is(true));
+        assertThat(FlagFilter.NOUNS.needsFlags(), is(false));
+        assertThat(FlagFilter.ALL.isNounOnly(), is(false));
+        assertThat(FlagFilter.ALL.needsFlags(), is(false));
+
+        FlagFilter filter = FlagFilter.NOUNS.and(FlagFilter.acronymTypes(0));
+        assertThat(filter.isNounOnly(), is(true));
+        assertThat(filter.needsFlags(), is(true));
+        assertThat(FlagFilter.acronymTypes(0).isNounOnly(), is(false));
+    }
+
+    @Test
+    public void equals() {
+        assertThat(FlagFilter.of(Flags::isNoun), is(FlagFilter.NOUNS));
+        assertThat(FlagFilter.of(Flags::isNoun).hashCode(), is(FlagFilter.NOUNS.hashCode()));
+        assertThat(FlagFilter.NOUNS.and(FlagFilter.ALL), is(FlagFilter.NOUNS));
+        assertThat(FlagFilter.variantTypes(0), is(not(FlagFilter.variantTypes(1))));
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2020 Works Applications Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.nlp.chikkar.dictionary;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class JmxInstrumentationTest {
+
+    static final String NAME = "com.worksap.nlp.chikkar.test:type=Instrumentation";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void attributes() throws IOException, JMException {
+        Path path = temporaryFolder.getRoot().toPath().resolve("system.dic");
+        DictionaryRegistryTest.copyResource("/system.dic", path);
+        MBeanServer server = MBeanServerFactory.newMBeanServer();
+        ObjectName name = new ObjectName(NAME);
+        try (JmxInstrumentation instrumentation = new JmxInstrumentation(server, NAME)) {
+            Dictionary dictionary = new Dictionary(path.toString(), false, 16, BoundedCache.EvictionPolicy.LRU);
+            dictionary.setInstrumentation(instrumentation);
+            dictionary.getSynonymGroup(6);
+            dictionary.getSynonymGroup(6);
+            dictionary.close();
+
+            instrumentation.found(1000);
+            instrumentation.found(3000);
+            instrumentation.lookedUp(0, true);
+            instrumentation.lookedUp(JmxInstrumentation.MAX_LAYERS + 4, false);
+            instrumentation.filtered(Instrumentation.Filter.POS, 3);
+
+            assertThat(server.getAttribute(name, "GroupsDecoded"), is(1L));
+            assertThat(server.getAttribute(name, "GroupCacheHits"), is(1L));
+            assertThat(server.getAttribute(name, "GroupCacheMisses"), is(1L));
+            assertThat(server.getAttribute(name, "DictionaryUnloadCount"), is(1L));
+            assertThat(server.getAttribute(name, "FindCount"), is(2L));
+            assertThat(server.getAttribute(name, "FindLatencyMean"), is(2000L));
+            assertThat(server.getAttribute(name, "FindLatencyP50"), is(1023L));
+            assertThat(server.getAttribute(name, "FindLatencyP99"), is(4095L));
+            assertThat(server.getAttribute(name, "PosFiltered"), is(3L));
+            long[] lookups = (long[]) server.getAttribute(name, "LookupCounts");
+            assertThat(lookups.length, is(JmxInstrumentation.MAX_LAYERS));
+            assertThat(lookups[0], is(1L));
+            assertThat(lookups[JmxInstrumentation.MAX_LAYERS - 1], is(1L));
+            assertThat(((long[]) server.getAttribute(name, "LookupHitCounts"))[0], is(1L));
+        }
+        assertThat(server.isRegistered(name), is(false));
+    }
+
+    @Test
+    public void percentileWithoutRecords() {
+        assertThat(new LatencyHistogram().percentile(99), is(0L));
+        assertThat(new LatencyHistogram().mean(), is(0L));
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2020 Works Applications Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.worksap.nlp.chikkar.dictionary;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.worksap.nlp.chikkar.Chikkar;
+import com.worksap.nlp.chikkar.Synonym;
+import com.worksap.nlp.chikkar.Utils;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Reads the dictionaries of the first version, which have neither the section
+ * directory nor the string table.
+ */
+public class LegacyDictionaryTest {
+
+    Dictionary dict;
+    Dictionary dictGid;
+    Dictionary current;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Before
+    public void setUp() throws IOException {
+        File legacy = temporaryFolder.newFolder("v1");
+        Utils.copyResource(legacy.toPath(), "/v1/system.dic", "/v1/user.dic");
+        Utils.copyResource(temporaryFolder.getRoot().toPath(), "/system.dic");
+
+        String path = new File(legacy, "system.dic").getPath();
+        dict = new Dictionary(path, true);
+        dictGid = new Dictionary(path, false);
+        current = new Dictionary(new File(temporaryFolder.getRoot(), "system.dic").getPath(), true);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        for (Dictionary d : Arrays.asList(dict, dictGid, current)) {
+            if (d != null) {
+                d.close();
+            }
+        }
+    }
+
+    @Test
+    public void getDictionaryHeader() {
+        assertThat(dict.getDictionaryHeader().getVersion(), is(DictionaryVersion.SYSTEM_DICT_VERSION_1));
+        assertThat(dict.getDictionaryHeader().isDictionary(), is(true));
+        assertThat(dict.isMerged(), is(false));
+        assertThat(dict.hasLexemeIndex(), is(false));
+    }
+
+    @Test
+    public void lookup() {
+        assertThat(dict.lookup("open", null), is(new int[] { 6, 100006 }));
+        assertThat(dictGid.lookup("open", new int[] { 4 }), is(new int[] { 4 }));
+
+        List<int[]> postings = new ArrayList<>();
+        assertThat(dict.lookupPostings("開店", null, (g, m, a) -> postings.add(new int[] { g, m })), is(1));
+        assertThat(postings.get(0), is(new int[] { 6, -1 }));
+    }
+
+    @Test
+    public void getSynonyms() {
+        SynonymGroupList groupList = current.getGroupList();
+        assertThat(dict.getGroupList().size(), is(groupList.size()));
+        for (int i = 0; i < groupList.size(); i++) {
+            int groupId = groupList.groupIdAt(i);
+            assertThat(dict.getGroupList().groupIdAt(i), is(groupId));
+            List<Synonym> expected = current.getSynonymGroup(groupId).get().getSynonyms();
+            List<Synonym> actual = dict.getSynonymGroup(groupId).get().getSynonyms();
+            assertThat(actual.size(), is(expected.size()));
+            for (int j = 0; j < expected.size(); j++) {
+                assertThat(actual.get(j).getHeadword(), is(expected.get(j).getHeadword()));
+                assertThat(actual.get(j).getLexemeIds(), is(expected.get(j).getLexemeIds()));
+                assertThat(actual.get(j).getCategory(), is(expected.get(j).getCategory()));
+                assertThat(actual.get(j).isNoun(), is(expected.get(j).isNoun()));
+                assertThat(actual.get(j).hasAmbiguity(), is(expected.get(j).hasAmbiguity()));
+            }
+        }
+        assertThat(dict.getSynonymGroup(7).isPresent(), is(false));
+        assertThat(dict.getSynonymGroup(200).isPresent(), is(false));
+    }
+
+    @Test
+    public void getSynonymsWithCursor() {
+        SynonymCursor cursor = new SynonymCursor();
+        assertThat(dict.getSynonyms(6, cursor), is(true));
+        assertThat(cursor.size(), is(6));
+        assertThat(cursor.next(), is(true));
+        assertThat(cursor.headword().toString(), is("開店"));
+        assertThat(cursor.lexemeIdAt(0), is(1));
+
+        assertThat(cursor.seek("オープン"), is(true));
+        assertThat(cursor.index(), is(4));
+        assertThat(cursor.seek("nothing"), is(false));
+
+        cursor.moveTo(5);
+        assertThat(cursor.headword().toString(), is("open"));
+        cursor.moveTo(1);
+        assertThat(cursor.headword().toString(), is("始業"));
+
+        cursor.rewind();
+        List<String> headwords = new ArrayList<>();
+        while (cursor.next(FlagFilter.variantTypes(0))) {
+            headwords.add(cursor.headword().toString());
+        }
+        assertThat(headwords, contains("開店", "始業", "営業開始", "店開き", "オープン"));
+        assertThat(dict.getSynonymGroup(6, FlagFilter.variantTypes(1)).get().getSynonyms().get(0).getHeadword(),
+                is("open"));
+    }
+
+    @Test
+    public void gatherHeadwords() {
+        SynonymCursor cursor = new SynonymCursor();
+        List<String> headwords = new ArrayList<>();
+        assertThat(dict.gatherHeadwords(6, "開店", false, cursor, h -> headwords.add(h.toString())), is(5));
+        assertThat(headwords, contains("始業", "営業開始", "店開き", "オープン", "open"));
+        headwords.clear();
+        assertThat(dict.gatherHeadwords(6, -1, "開店", FlagFilter.variantTypes(1), cursor,
+                h -> headwords.add(h.toString())), is(1));
+        assertThat(headwords, contains("open"));
+    }
+
+    @Test
+    public void lookupLexeme() {
+        List<Integer> indices = new ArrayList<>();
+        assertThat(dict.lookupLexeme(6, 5, indices::add), is(2));
+        assertThat(indices, contains(4, 5));
+        assertThat(dict.lookupLexeme(200, 1, indices::add), is(0));
+    }
+
+    @Test
+    public void warmUp() throws IOException {
+        dict.warmUp(LoadPolicy.of(LoadPolicy.Preload.INDEX).withHotWords(Arrays.asList("開店")).withHotGroupIds(5));
+        try (Dictionary heap = new Dictionary(dict.getFileName(), false, LoadPolicy.of(LoadPolicy.Preload.HEAP))) {
+            assertThat(heap.getSynonymGroup(6).get().getSynonyms().get(5).getHeadword(), is("open"));
+            assertThat(heap.getSynonymGroup(100006).get().getSynonyms().size(), is(3));
+        }
+    }
+
+    @Test
+    public void find() throws IOException {
+        try (Chikkar chikkar = new Chikkar();
+                Dictionary user = new Dictionary(new File(temporaryFolder.getRoot(), "v1/user.dic").getPath(),
+                        true)) {
+            chikkar.addDictionary(dictGid);
+            assertThat(chikkar.find("開店"), containsInAnyOrder("始業", "営業開始", "店開き", "オープン", "open"));
+            assertThat(chikkar.find("開店", new int[] { 6 }),
+                    containsInAnyOrder("始業", "営業開始", "店開き", "オープン", "open"));
+            assertThat(chikkar.find("オープン"), empty());
+            chikkar.addDictionary(user);
+            assertThat(chikkar.find("open"), containsInAnyOrder("開放", "オープン"));
+        }
+    }
+}
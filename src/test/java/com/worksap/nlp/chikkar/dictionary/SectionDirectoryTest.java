@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2020 Works Applications Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.nlp.chikkar.dictionary;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class SectionDirectoryTest {
+
+    ByteBuffer bytes;
+    SectionDirectory sections;
+
+    @Before
+    public void setUp() throws IOException {
+        bytes = DictionaryReader.read("/system.dic");
+        sections = new SectionDirectory(bytes, new DictionaryHeader(bytes, 0).storageSize());
+    }
+
+    @Test
+    public void section() throws IOException {
+        int directory = new DictionaryHeader(bytes, 0).storageSize();
+        int count = bytes.getInt(directory);
+        assertThat(count, is(SectionDirectory.SECTION_COUNT));
+        int end = 0;
+        for (int i = 0; i < count; i++) {
+            int id = bytes.getInt(directory + 4 + 12 * i);
+            int start = bytes.getInt(directory + 8 + 12 * i);
+            ByteBuffer section = sections.section(id);
+            assertThat(section.position(), is(0));
+            assertThat(section.order(), is(ByteOrder.LITTLE_ENDIAN));
+            assertThat(section.limit(), is(bytes.getInt(directory + 12 + 12 * i)));
+            assertThat(start % SectionDirectory.ALIGNMENT, is(0));
+            assertThat(start >= end, is(true));
+            end = start + section.limit();
+        }
+        assertThat(end, is(bytes.limit()));
+        assertThat(bytes.position(), is(0));
+        assertThat(sections.section(SectionDirectory.LAYER_TABLE).limit(), is(0));
+    }
+
+    @Test(expected = IOException.class)
+    public void sectionWithUnknownId() throws IOException {
+        sections.section(0);
+    }
+
+    @Test(expected = IOException.class)
+    public void sectionOutOfFile() throws IOException {
+        ByteBuffer truncated = bytes.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        truncated.limit(bytes.limit() - 1);
+        new SectionDirectory(truncated, 272).section(SectionDirectory.LEXEME_INDEX);
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2020 Works Applications Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.nlp.chikkar.dictionary;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SpanScannerTest {
+
+    Dictionary dictionary;
+    Dictionary userDictionary;
+    SpanScanner scanner;
+    List<String> spans;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    Dictionary build(String... lines) throws IOException {
+        File input = temporaryFolder.newFile();
+        Files.write(input.toPath(), Arrays.asList(lines));
+        File output = temporaryFolder.newFile();
+        DictionaryHeader header = new DictionaryHeader(DictionaryVersion.SYSTEM_DICT_VERSION_2, 0, "");
+        try (FileOutputStream stream = new FileOutputStream(output)) {
+            stream.write(header.toByte());
+            new DictionaryBuilder().build(input.getPath(), stream);
+        }
+        return new Dictionary(output.getPath(), true);
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        dictionary = build("000001,1,0,1,0,0,0,(),ab,,", "000001,1,0,1,0,0,0,(),abc,,", "",
+                "000002,1,0,1,0,0,0,(),abcd,,", "000002,1,0,1,0,0,0,(),bc,,", "000002,1,1,1,0,0,0,(),cd,,", "",
+                "000003,1,0,1,0,0,0,(),日本,,", "000003,1,0,1,0,0,0,(),日本語,,", "000003,1,0,1,0,0,0,(),𠮷野,,");
+        userDictionary = build("000010,1,0,1,0,0,0,(),ab,,", "000010,1,0,1,0,0,0,(),cd,,");
+        scanner = new SpanScanner();
+        spans = new ArrayList<>();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        dictionary.close();
+        userDictionary.close();
+    }
+
+    void add(int begin, int end, int groupId) {
+        spans.add(begin + "-" + end + ":" + groupId);
+    }
+
+    @Test
+    public void scanAllMatches() {
+        Dictionary[] dictionaries = new Dictionary[] { dictionary };
+        assertThat(scanner.scan(dictionaries, "xabcdz", SpanScanner.Mode.ALL_MATCHES, this::add), is(4));
+        assertThat(spans, contains("1-3:1", "1-4:1", "1-5:2", "2-4:2"));
+    }
+
+    @Test
+    public void scanLeftmostLongest() {
+        Dictionary[] dictionaries = new Dictionary[] { dictionary };
+        assertThat(scanner.scan(dictionaries, "xabcdzabcab", SpanScanner.Mode.LEFTMOST_LONGEST, this::add), is(3));
+        assertThat(spans, contains("1-5:2", "6-9:1", "9-11:1"));
+    }
+
+    @Test
+    public void scanWithPrecedence() {
+        Dictionary[] dictionaries = new Dictionary[] { userDictionary, dictionary };
+        scanner.scan(dictionaries, "abcd", SpanScanner.Mode.ALL_MATCHES, this::add);
+        assertThat(spans, contains("0-2:10", "0-3:1", "0-4:2", "1-3:2", "2-4:10"));
+    }
+
+    @Test
+    public void scanSurrogatePairs() {
+        Dictionary[] dictionaries = new Dictionary[] { dictionary };
+        scanner.scan(dictionaries, "a𠮷野日本語", SpanScanner.Mode.ALL_MATCHES, this::add);
+        assertThat(spans, contains("1-4:3", "4-6:3", "4-7:3"));
+    }
+
+    @Test
+    public void scanBytes() {
+        Dictionary[] dictionaries = new Dictionary[] { dictionary };
+        byte[] text = "_日本語でab".getBytes(StandardCharsets.UTF_8);
+        assertThat(scanner.scan(dictionaries, text, 1, text.length - 1, SpanScanner.Mode.ALL_MATCHES, this::add),
+                is(3));
+        assertThat(spans, contains("1-7:3", "1-10:3", "13-15:1"));
+
+        spans.clear();
+        scanner.scan(dictionaries, text, 0, text.length, SpanScanner.Mode.LEFTMOST_LONGEST, this::add);
+        assertThat(spans, contains("1-10:3", "13-15:1"));
+    }
+}